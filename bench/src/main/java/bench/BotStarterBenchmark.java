@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bot.BotStarter;
+import bot.BotState;
+import map.MapState;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * @author PandaCoders Measures BotStarter's two moves on the state of a game
+ *         in its middle. The moves change the map, so every call starts by
+ *         restoring the state it is measured on; that copy is part of the
+ *         numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotStarterBenchmark {
+
+	@Param({ "12", "42", "1000" })
+	public int regions;
+
+	private BotStarter bot;
+	private BotState state;
+	private int startingArmies;
+
+	// the map before and after our placements
+	private MapState beforePlacing;
+	private MapState afterPlacing;
+
+	@Setup
+	public void setUp() {
+		List<String> commands = Games.generate(regions);
+		bot = new BotStarter(1);
+		state = Games.play(commands, bot, Games.ROUNDS / 2);
+		startingArmies = state.getStartingArmies();
+
+		beforePlacing = state.getFullMap().getState().copy();
+		bot.getPlaceArmiesMoves(state, null);
+		afterPlacing = state.getFullMap().getState().copy();
+	}
+
+	@Benchmark
+	public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves() {
+		state.setMapState(beforePlacing);
+		state.setStartingArmies(startingArmies);
+		return bot.getPlaceArmiesMoves(state, null);
+	}
+
+	@Benchmark
+	public ArrayList<AttackTransferMove> getAttackTransferMoves() {
+		state.setMapState(afterPlacing);
+		state.detMyEdgeTerritories();
+		return bot.getAttackTransferMoves(state, null);
+	}
+
+}
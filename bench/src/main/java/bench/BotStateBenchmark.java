@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bot.BotStarter;
+import bot.BotState;
+import map.Map;
+
+/**
+ * @author PandaCoders Measures the updates BotState does at the start of
+ *         every round, on the state of a game in its middle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotStateBenchmark {
+
+	@Param({ "12", "42", "1000" })
+	public int regions;
+
+	private BotState state;
+	private String[] updateMap;
+	private String[] opponentMoves;
+
+	@Setup
+	public void setUp() {
+		List<String> commands = Games.generate(regions);
+		int round = Games.ROUNDS / 2;
+		state = Games.play(commands, new BotStarter(1), round);
+		updateMap = Games.find(commands, "update_map", round).split(" ");
+		opponentMoves = Games.find(commands, "opponent_moves", round)
+				.split(" ");
+	}
+
+	@Benchmark
+	public BotState updateMap() {
+		state.updateMap(updateMap);
+		return state;
+	}
+
+	@Benchmark
+	public Map getMapCopy() {
+		return state.getFullMap().getMapCopy();
+	}
+
+	@Benchmark
+	public BotState updateMapAndCopy() {
+		state.updateMap(updateMap);
+		state.getFullMap().getMapCopy();
+		return state;
+	}
+
+	@Benchmark
+	public BotState readOpponentMoves() {
+		state.readOpponentMoves(opponentMoves);
+		return state;
+	}
+
+}
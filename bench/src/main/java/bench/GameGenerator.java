@@ -0,0 +1,174 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * @author PandaCoders Writes the commands the engine would send in a game on
+ *         a random map: the settings, the setup of the map, the picks and
+ *         then the update_map, opponent_moves and go commands of every round.
+ *         Every SuperRegion has about six Regions and every Region a handful
+ *         of neighbors, like the maps the engine uses, and the same seed
+ *         always gives the same game.
+ */
+public class GameGenerator {
+
+	private final int regions;
+	private final int rounds;
+	private final Random random;
+
+	/**
+	 * @param regions
+	 *            the number of Regions of the map
+	 * @param rounds
+	 *            the number of rounds to play
+	 * @param seed
+	 */
+	public GameGenerator(int regions, int rounds, long seed) {
+		this.regions = regions;
+		this.rounds = rounds;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * @return The commands, one per line
+	 */
+	public List<String> generate() {
+		List<String> out = new ArrayList<String>();
+		int superRegions = Math.max(2, regions / 6);
+
+		out.add("settings timebank 10000");
+		out.add("settings time_per_move 500");
+		out.add("settings max_rounds 60");
+		out.add("settings your_bot player1");
+		out.add("settings opponent_bot player2");
+
+		StringBuilder line = new StringBuilder("setup_map super_regions");
+		for (int s = 1; s <= superRegions; s++)
+			line.append(' ').append(s).append(' ').append(1 + random.nextInt(6));
+		out.add(line.toString());
+
+		line = new StringBuilder("setup_map regions");
+		for (int r = 1; r <= regions; r++)
+			line.append(' ').append(r).append(' ')
+					.append(Math.min(superRegions, (r - 1) / 6 + 1));
+		out.add(line.toString());
+
+		// a chain of nearby regions keeps the map connected, a few random
+		// edges make it less regular
+		List<TreeSet<Integer>> neighbors = new ArrayList<TreeSet<Integer>>();
+		for (int r = 0; r <= regions; r++)
+			neighbors.add(new TreeSet<Integer>());
+		for (int r = 2; r <= regions; r++)
+			connect(neighbors, r, Math.max(1, r - 1 - random.nextInt(8)));
+		for (int i = 0; i < regions / 2; i++) {
+			int a = 1 + random.nextInt(regions), b = 1 + random.nextInt(regions);
+			if (a != b)
+				connect(neighbors, a, b);
+		}
+		line = new StringBuilder("setup_map neighbors");
+		for (int r = 1; r <= regions; r++) {
+			boolean first = true;
+			for (int neighbor : neighbors.get(r).tailSet(r, false)) {
+				line.append(first ? " " + r + " " : ",").append(neighbor);
+				first = false;
+			}
+		}
+		out.add(line.toString());
+
+		List<Integer> wastelands = sample(Math.max(1, regions / 10));
+		out.add("setup_map wastelands" + join(wastelands));
+
+		List<Integer> pickable = sample(Math.min(6, regions));
+		out.add("settings starting_regions" + join(pickable));
+		out.add("settings starting_pick_amount 3");
+		out.add("pick_starting_region 10000" + join(pickable));
+		out.add("pick_starting_region 9000"
+				+ join(pickable.subList(1, pickable.size())));
+
+		String[] owners = new String[regions + 1];
+		int[] armies = new int[regions + 1];
+		for (int r = 1; r <= regions; r++) {
+			owners[r] = "neutral";
+			armies[r] = 2;
+		}
+		for (int wasteland : wastelands)
+			armies[wasteland] = 6;
+
+		TreeSet<Integer> mine = new TreeSet<Integer>(sample(Math.max(2,
+				regions / 5)));
+		TreeSet<Integer> theirs = new TreeSet<Integer>();
+		while (theirs.size() < Math.max(2, regions / 5)) {
+			int r = 1 + random.nextInt(regions);
+			if (!mine.contains(r))
+				theirs.add(r);
+		}
+
+		for (int round = 0; round < rounds; round++) {
+			// we expand, the opponent stays where he is
+			for (int r : new ArrayList<Integer>(mine))
+				if (random.nextDouble() < 0.3)
+					for (int neighbor : neighbors.get(r))
+						if (!theirs.contains(neighbor))
+							mine.add(neighbor);
+			for (int r : mine)
+				owners[r] = "player1";
+			for (int r : theirs)
+				owners[r] = "player2";
+			for (int r = 1; r <= regions; r++)
+				armies[r] = Math.max(1, armies[r] - 1 + random.nextInt(5));
+
+			TreeSet<Integer> visible = new TreeSet<Integer>(mine);
+			for (int r : mine)
+				visible.addAll(neighbors.get(r));
+
+			out.add("settings starting_armies " + (5 + random.nextInt(8)));
+			line = new StringBuilder("update_map");
+			for (int r : visible)
+				line.append(' ').append(r).append(' ').append(owners[r])
+						.append(' ').append(armies[r]);
+			out.add(line.toString());
+
+			line = new StringBuilder("opponent_moves");
+			for (int r : theirs)
+				if (visible.contains(r)) {
+					line.append(" player2 place_armies ").append(r)
+							.append(" 2");
+					line.append(" player2 attack/transfer ").append(r)
+							.append(' ').append(neighbors.get(r).first())
+							.append(" 1");
+				}
+			out.add(line.toString());
+			out.add("go place_armies 10000");
+			out.add("go attack/transfer 10000");
+		}
+		return out;
+	}
+
+	private static void connect(List<TreeSet<Integer>> neighbors, int a, int b) {
+		neighbors.get(a).add(b);
+		neighbors.get(b).add(a);
+	}
+
+	/**
+	 * @return count different Regions, in random order
+	 */
+	private List<Integer> sample(int count) {
+		List<Integer> all = new ArrayList<Integer>();
+		for (int r = 1; r <= regions; r++)
+			all.add(r);
+		Collections.shuffle(all, random);
+		return new ArrayList<Integer>(all.subList(0, count));
+	}
+
+	private static String join(List<Integer> ids) {
+		StringBuilder line = new StringBuilder();
+		for (int id : ids)
+			line.append(' ').append(id);
+		return line.toString();
+	}
+
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.List;
+
+import bot.Bot;
+import bot.BotState;
+
+/**
+ * @author PandaCoders The games the benchmarks run on, and BotStates set up
+ *         the way BotParser sets them up while playing one.
+ */
+public class Games {
+
+	// the rounds every generated game has
+	public static final int ROUNDS = 20;
+
+	private static final long SEED = 42;
+
+	private Games() {
+	}
+
+	/**
+	 * @param regions
+	 *            the size of the map
+	 * @return The commands of the game on a map of that size
+	 */
+	public static List<String> generate(int regions) {
+		return new GameGenerator(regions, ROUNDS, SEED).generate();
+	}
+
+	/**
+	 * Applies the commands of a game to a new BotState, up to and including
+	 * the opponent_moves of the given round. The picks are done by the given
+	 * bot, the go commands are skipped.
+	 *
+	 * @return The BotState at the start of that round's placement phase
+	 */
+	public static BotState play(List<String> commands, Bot bot, int round) {
+		BotState state = new BotState();
+		int rounds = 0;
+		for (String command : commands) {
+			String[] parts = command.split(" ");
+			if (parts[0].equals("settings"))
+				state.updateSettings(parts[1], parts);
+			else if (parts[0].equals("setup_map"))
+				state.setupMap(parts);
+			else if (parts[0].equals("pick_starting_region")) {
+				state.setPickableStartingRegions(parts);
+				bot.getStartingRegion(state, Long.valueOf(parts[1]));
+			} else if (parts[0].equals("update_map"))
+				state.updateMap(parts);
+			else if (parts[0].equals("opponent_moves")) {
+				state.readOpponentMoves(parts);
+				if (++rounds == round)
+					break;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * @return The first command of the round that starts with the given word
+	 */
+	public static String find(List<String> commands, String word, int round) {
+		int rounds = 0;
+		for (String command : commands)
+			if (command.startsWith(word + " ") && ++rounds == round)
+				return command;
+		throw new IllegalArgumentException("No " + word + " in round " + round);
+	}
+
+}
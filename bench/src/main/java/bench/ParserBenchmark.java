@@ -0,0 +1,96 @@
+package bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bot.Bot;
+import bot.BotParser;
+import bot.BotState;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * @author PandaCoders Reads a whole game through BotParser with a bot that
+ *         doesn't think, so only the reading of the commands, the updates of
+ *         the BotState and the writing of the answers are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({ "12", "42", "1000" })
+	public int regions;
+
+	private byte[] input;
+
+	@Setup
+	public void setUp() {
+		StringBuilder game = new StringBuilder();
+		for (String command : Games.generate(regions))
+			game.append(command).append('\n');
+		input = game.toString().getBytes(Charset.forName("US-ASCII"));
+	}
+
+	@Benchmark
+	public BotParser parseGame() {
+		BotParser parser = new BotParser(new IdleBot(),
+				new ByteArrayInputStream(input), new DiscardingStream());
+		parser.run();
+		return parser;
+	}
+
+	/**
+	 * Picks the first region it may and never moves.
+	 */
+	static class IdleBot implements Bot {
+
+		@Override
+		public Region getStartingRegion(BotState state, Long timeOut) {
+			return state.getPickableStartingRegions().get(0);
+		}
+
+		@Override
+		public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state,
+				Long timeOut) {
+			return new ArrayList<PlaceArmiesMove>();
+		}
+
+		@Override
+		public ArrayList<AttackTransferMove> getAttackTransferMoves(
+				BotState state, Long timeOut) {
+			return new ArrayList<AttackTransferMove>();
+		}
+	}
+
+	static class DiscardingStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int offset, int length) {
+		}
+	}
+
+}
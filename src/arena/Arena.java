@@ -0,0 +1,196 @@
+package arena;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import bot.BotStarter;
+import bot.MctsBot;
+import bot.TimeManager.Phase;
+
+/**
+ * @author PandaCoders Plays many games between two bots on generated maps,
+ *         several at a time, and reports how often each one won and how long
+ *         their answers took. The bots swap seats every game.
+ *
+ *         <pre>
+ * java arena.Arena greedy mcts games=100 threads=4 regions=42
+ * </pre>
+ *
+ *         A bot is "greedy" (BotStarter), "mcts" (MctsBot) or the command
+ *         line of a bot to run as a separate process. The other options are
+ *         games, threads, regions, seed, max_rounds, timebank and
+ *         time_per_move.
+ */
+public class Arena {
+
+	private final String[] bots;
+	private int games = 20;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int regions = 42;
+	private long seed = 1;
+	private int maxRounds = 60;
+	private long timebank = 10000;
+	private long timePerMove = 500;
+
+	// the results, by bot
+	private final int[] wins = new int[2];
+	private int draws;
+	private int rounds;
+	private final Latencies[][] latencies = new Latencies[2][Phase
+			.values().length];
+
+	public Arena(String first, String second) {
+		bots = new String[] { first, second };
+		for (int b = 0; b < 2; b++)
+			for (int phase = 0; phase < latencies[b].length; phase++)
+				latencies[b][phase] = new Latencies();
+	}
+
+	/**
+	 * Sets one of the options given as key=value.
+	 */
+	public void setOption(String key, String value) {
+		if (key.equals("games"))
+			games = Integer.parseInt(value);
+		else if (key.equals("threads"))
+			threads = Integer.parseInt(value);
+		else if (key.equals("regions"))
+			regions = Integer.parseInt(value);
+		else if (key.equals("seed"))
+			seed = Long.parseLong(value);
+		else if (key.equals("max_rounds"))
+			maxRounds = Integer.parseInt(value);
+		else if (key.equals("timebank"))
+			timebank = Long.parseLong(value);
+		else if (key.equals("time_per_move"))
+			timePerMove = Long.parseLong(value);
+		else
+			throw new IllegalArgumentException("Unknown option " + key);
+	}
+
+	/**
+	 * Plays all the games and collects their results.
+	 */
+	public void run() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1,
+				threads));
+		List<Future<Game>> results = new ArrayList<Future<Game>>();
+		for (int i = 0; i < games; i++) {
+			final long gameSeed = seed + i;
+			// the first bot is player1 in the even games
+			final int first = i % 2;
+			results.add(pool.submit(new Callable<Game>() {
+				@Override
+				public Game call() throws Exception {
+					return play(gameSeed, first);
+				}
+			}));
+		}
+
+		// a failed game ends the run, the games still waiting are dropped
+		try {
+			for (int i = 0; i < games; i++) {
+				Game game = results.get(i).get();
+				int first = i % 2;
+				if (game.getWinner() < 0)
+					draws++;
+				else
+					wins[game.getWinner() == 0 ? first : 1 - first]++;
+				rounds += game.getRounds();
+				for (int p = 0; p < 2; p++)
+					for (Phase phase : Phase.values())
+						latencies[p == 0 ? first : 1 - first][phase.ordinal()]
+								.addAll(game.getLatencies(p, phase));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays one game.
+	 *
+	 * @param first
+	 *            the bot that is player1
+	 */
+	private Game play(long gameSeed, int first) throws Exception {
+		GameMap map = GameMap.generate(regions, new Random(gameSeed));
+		Player player1 = createPlayer(bots[first], 2 * gameSeed);
+		Player player2 = createPlayer(bots[1 - first], 2 * gameSeed + 1);
+		try {
+			Game game = new Game(map, player1, player2, gameSeed);
+			game.setMaxRounds(maxRounds);
+			game.setTimebank(timebank);
+			game.setTimePerMove(timePerMove);
+			game.play();
+			return game;
+		} finally {
+			player1.close();
+			player2.close();
+		}
+	}
+
+	private static Player createPlayer(String bot, long seed)
+			throws Exception {
+		if (bot.equals("greedy"))
+			return Player.inProcess(new BotStarter(seed));
+		if (bot.equals("mcts"))
+			return Player.inProcess(new MctsBot(seed));
+		return Player.process(bot);
+	}
+
+	/**
+	 * Prints the win rates and the percentiles of the answer times.
+	 */
+	public void report() {
+		System.out.printf("%d games on %d regions, %.1f rounds on average%n",
+				games, regions, games == 0 ? 0.0 : (double) rounds / games);
+		for (int b = 0; b < 2; b++)
+			System.out.printf("%-8s won %d (%.1f%%)%n", bots[b], wins[b],
+					games == 0 ? 0.0 : 100.0 * wins[b] / games);
+		System.out.printf("draws    %d%n", draws);
+
+		System.out.printf("%n%-8s %-22s %8s %8s %8s %8s %8s%n", "bot",
+				"phase", "answers", "p50 ms", "p90 ms", "p99 ms", "max ms");
+		for (int b = 0; b < 2; b++)
+			for (Phase phase : Phase.values()) {
+				Latencies times = latencies[b][phase.ordinal()];
+				System.out.printf("%-8s %-22s %8d %8.2f %8.2f %8.2f %8.2f%n",
+						bots[b], phase, times.size(),
+						times.percentile(50) / 1e6, times.percentile(90) / 1e6,
+						times.percentile(99) / 1e6,
+						times.percentile(100) / 1e6);
+			}
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<String> names = new ArrayList<String>();
+		List<String> options = new ArrayList<String>();
+		for (String arg : args)
+			if (arg.contains("=") && !arg.contains(" "))
+				options.add(arg);
+			else
+				names.add(arg);
+		if (names.size() != 2) {
+			System.err.println("Usage: java arena.Arena <bot> <bot> "
+					+ "[games=20] [threads=N] [regions=42] [seed=1] "
+					+ "[max_rounds=60] [timebank=10000] [time_per_move=500]");
+			System.exit(1);
+		}
+
+		Arena arena = new Arena(names.get(0), names.get(1));
+		for (String option : options) {
+			int split = option.indexOf('=');
+			arena.setOption(option.substring(0, split),
+					option.substring(split + 1));
+		}
+		arena.run();
+		arena.report();
+	}
+
+}
@@ -0,0 +1,348 @@
+package arena;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import bot.TimeManager.Phase;
+import map.Adjacency;
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Region;
+import sim.RoundMoves;
+import sim.RoundSimulator;
+
+/**
+ * @author PandaCoders One game between two bots, played the way the engine
+ *         plays it: the settings and the map are sent, the players pick their
+ *         starting regions in the order ABBAAB..., and every round each
+ *         player gets its income, the regions it can see and the moves of
+ *         the opponent it could see, and is asked for its placements and
+ *         attacks. Invalid moves are dropped and the round is played by the
+ *         RoundSimulator with random battle results. The game ends when a
+ *         player has no regions left; after the last round the player with
+ *         more regions wins.
+ *
+ *         Every answer counts against the player's timebank; a player that
+ *         doesn't answer in time makes no moves.
+ */
+public class Game {
+
+	public static final String[] NAMES = { "player1", "player2" };
+	private static final byte[] OWNERS = { Owner.ME, Owner.OPPONENT };
+
+	private long timebank = 10000;
+	private long timePerMove = 500;
+	private int maxRounds = 60;
+	private int startingPickAmount = 3;
+
+	private final GameMap gameMap;
+	private final Map map;
+	private final MapState state;
+	private final Adjacency adjacency;
+	private final RoundSimulator simulator;
+	private final Random random;
+
+	private final Player[] players;
+	private final long[] timebanks = new long[2];
+	private final Latencies[][] latencies = new Latencies[2][Phase
+			.values().length];
+
+	// the moves of the current and of the last round
+	private final RoundMoves[] moves = { new RoundMoves(), new RoundMoves() };
+	private final RoundMoves[] lastMoves = { new RoundMoves(),
+			new RoundMoves() };
+
+	private int rounds;
+	private int winner = -1;
+
+	/**
+	 * @param gameMap
+	 *            the map to play on; its state is changed by the game
+	 * @param first
+	 *            player1, who picks first
+	 * @param second
+	 *            player2
+	 * @param seed
+	 *            the seed of the picks the players leave to chance and of the
+	 *            battles
+	 */
+	public Game(GameMap gameMap, Player first, Player second, long seed) {
+		this.gameMap = gameMap;
+		this.map = gameMap.getMap();
+		this.state = map.getState();
+		this.adjacency = map.getAdjacency();
+		this.simulator = new RoundSimulator(map);
+		this.random = new Random(seed);
+		this.players = new Player[] { first, second };
+
+		simulator.setMode(RoundSimulator.Mode.STOCHASTIC);
+		simulator.setSeed(seed);
+		for (int p = 0; p < 2; p++)
+			for (int phase = 0; phase < latencies[p].length; phase++)
+				latencies[p][phase] = new Latencies();
+	}
+
+	public void setTimebank(long timebank) {
+		this.timebank = timebank;
+	}
+
+	public void setTimePerMove(long timePerMove) {
+		this.timePerMove = timePerMove;
+	}
+
+	public void setMaxRounds(int maxRounds) {
+		this.maxRounds = maxRounds;
+	}
+
+	/**
+	 * Plays the game to its end.
+	 *
+	 * @throws IOException
+	 *             if a player can't be written to
+	 * @throws InterruptedException
+	 */
+	public void play() throws IOException, InterruptedException {
+		for (Region region : map.getRegions()) {
+			region.setOwner(Owner.NEUTRAL);
+			region.setArmies(gameMap.isWasteland(region.getId())
+					? GameMap.WASTELAND_ARMIES : GameMap.NEUTRAL_ARMIES);
+		}
+		int[] pickable = gameMap.getPickableRegions(random);
+
+		List<String> setup = gameMap.getSetupCommands();
+		for (int p = 0; p < 2; p++) {
+			timebanks[p] = timebank;
+			Player player = players[p];
+			player.send("settings timebank " + timebank);
+			player.send("settings time_per_move " + timePerMove);
+			player.send("settings max_rounds " + maxRounds);
+			player.send("settings your_bot " + NAMES[p]);
+			player.send("settings opponent_bot " + NAMES[1 - p]);
+			for (String command : setup)
+				player.send(command);
+			player.send("settings starting_regions"
+					+ join(pickable, pickable.length));
+			player.send("settings starting_pick_amount " + startingPickAmount);
+		}
+
+		pick(pickable);
+
+		for (rounds = 1; rounds <= maxRounds && winner < 0; rounds++) {
+			for (int p = 0; p < 2; p++)
+				playTurn(p);
+			simulator.simulate(state, moves[0], moves[1]);
+			for (int p = 0; p < 2; p++)
+				lastMoves[p].copyFrom(moves[p]);
+
+			int mine = countRegions(Owner.ME);
+			int theirs = countRegions(Owner.OPPONENT);
+			if (mine == 0 || theirs == 0)
+				winner = mine == 0 ? (theirs == 0 ? -1 : 1) : 0;
+		}
+		rounds--;
+
+		if (winner < 0) {
+			int mine = countRegions(Owner.ME);
+			int theirs = countRegions(Owner.OPPONENT);
+			if (mine != theirs)
+				winner = mine > theirs ? 0 : 1;
+		}
+	}
+
+	/**
+	 * Lets the players pick their starting regions in the order ABBAAB...
+	 * Regions the players leave to chance are picked at random.
+	 */
+	private void pick(int[] pickable) throws IOException,
+			InterruptedException {
+		int left = pickable.length;
+		for (int i = 0; i < 2 * startingPickAmount && left > 0; i++) {
+			int p = (i / 2) % 2 == 0 ? i % 2 : 1 - i % 2;
+			String answer = ask(p, "pick_starting_region " + timebanks[p]
+					+ join(pickable, left), Phase.PICK_STARTING_REGION);
+
+			int chosen = random.nextInt(left);
+			int id = parseInt(answer == null ? "" : answer.trim());
+			for (int j = 0; j < left; j++)
+				if (pickable[j] == id)
+					chosen = j;
+
+			Region region = map.getRegion(pickable[chosen]);
+			region.setOwner(OWNERS[p]);
+			region.setArmies(GameMap.NEUTRAL_ARMIES);
+			pickable[chosen] = pickable[--left];
+		}
+	}
+
+	/**
+	 * Tells player p what it sees and asks for its moves of the round.
+	 */
+	private void playTurn(int p) throws IOException, InterruptedException {
+		Player player = players[p];
+		int income = simulator.getIncome(state, OWNERS[p]);
+		boolean[] visible = getVisibleRegions(OWNERS[p]);
+
+		player.send("settings starting_armies " + income);
+
+		StringBuilder line = new StringBuilder("update_map");
+		for (int id = 0; id < visible.length; id++)
+			if (visible[id])
+				line.append(' ').append(id).append(' ')
+						.append(getName(state.getOwner(id))).append(' ')
+						.append(state.getArmies(id));
+		player.send(line.toString());
+
+		line = new StringBuilder("opponent_moves");
+		RoundMoves seen = lastMoves[1 - p];
+		for (int i = 0; i < seen.getPlaceCount(); i++)
+			if (visible[seen.getPlaceRegion(i)])
+				line.append(' ').append(NAMES[1 - p]).append(" place_armies ")
+						.append(seen.getPlaceRegion(i)).append(' ')
+						.append(seen.getPlaceArmies(i));
+		for (int i = 0; i < seen.getMoveCount(); i++)
+			if (visible[seen.getMoveFrom(i)] || visible[seen.getMoveTo(i)])
+				line.append(' ').append(NAMES[1 - p])
+						.append(" attack/transfer ")
+						.append(seen.getMoveFrom(i)).append(' ')
+						.append(seen.getMoveTo(i)).append(' ')
+						.append(seen.getMoveArmies(i));
+		player.send(line.toString());
+
+		moves[p].clear();
+		String answer = ask(p, "go place_armies " + timebanks[p],
+				Phase.PLACE_ARMIES);
+		int left = income;
+		for (String[] move : split(answer, p))
+			if (move.length == 4 && move[1].equals("place_armies")) {
+				int id = parseInt(move[2]), armies = parseInt(move[3]);
+				if (isOwned(id, p) && armies > 0 && armies <= left) {
+					moves[p].addPlacement(id, armies);
+					left -= armies;
+				}
+			}
+
+		answer = ask(p, "go attack/transfer " + timebanks[p],
+				Phase.ATTACK_TRANSFER);
+		for (String[] move : split(answer, p))
+			if (move.length == 5 && move[1].equals("attack/transfer")) {
+				int from = parseInt(move[2]), to = parseInt(move[3]);
+				int armies = parseInt(move[4]);
+				if (isOwned(from, p) && isRegion(to) && armies > 0)
+					moves[p].addMove(from, to, armies);
+			}
+	}
+
+	/**
+	 * Sends a command that needs an answer and charges the time the player
+	 * took to its timebank.
+	 *
+	 * @return The answer, null if there was none in time
+	 */
+	private String ask(int p, String command, Phase phase) throws IOException,
+			InterruptedException {
+		long start = System.nanoTime();
+		players[p].send(command);
+		String answer = players[p].receive(timebanks[p]);
+		long nanos = System.nanoTime() - start;
+
+		latencies[p][phase.ordinal()].add(nanos);
+		long left = Math.max(0, timebanks[p] - nanos / 1000000L);
+		timebanks[p] = Math.min(timebank, left + timePerMove);
+		return answer;
+	}
+
+	/**
+	 * @return The moves of an answer that were made by player p, each split
+	 *         into its words
+	 */
+	private static List<String[]> split(String answer, int p) {
+		List<String[]> moves = new ArrayList<String[]>();
+		if (answer == null)
+			return moves;
+		for (String move : answer.split(",")) {
+			String[] words = move.trim().split("\\s+");
+			if (words[0].equals(NAMES[p]))
+				moves.add(words);
+		}
+		return moves;
+	}
+
+	private static int parseInt(String word) {
+		try {
+			return Integer.parseInt(word);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private boolean isRegion(int id) {
+		return id >= 0 && id < state.size() && map.getRegion(id) != null;
+	}
+
+	private boolean isOwned(int id, int p) {
+		return isRegion(id) && state.getOwner(id) == OWNERS[p];
+	}
+
+	/**
+	 * @return For every Region id, true if the owner owns the Region or one
+	 *         of its neighbors
+	 */
+	private boolean[] getVisibleRegions(byte owner) {
+		boolean[] visible = new boolean[state.size()];
+		for (int id = 0; id < adjacency.size(); id++)
+			if (state.getOwner(id) == owner) {
+				visible[id] = true;
+				for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+					visible[adjacency.target(k)] = true;
+			}
+		return visible;
+	}
+
+	private int countRegions(byte owner) {
+		int count = 0;
+		for (int id = 0; id < state.size(); id++)
+			if (state.getOwner(id) == owner)
+				count++;
+		return count;
+	}
+
+	private static String getName(byte owner) {
+		if (owner == Owner.ME)
+			return NAMES[0];
+		if (owner == Owner.OPPONENT)
+			return NAMES[1];
+		return "neutral";
+	}
+
+	private static String join(int[] ids, int count) {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			line.append(' ').append(ids[i]);
+		return line.toString();
+	}
+
+	/**
+	 * @return The index of the winner in NAMES, -1 for a draw
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * @return The number of rounds played
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return How long player p took to answer in the given phase
+	 */
+	public Latencies getLatencies(int p, Phase phase) {
+		return latencies[p][phase.ordinal()];
+	}
+
+}
@@ -0,0 +1,139 @@
+package arena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import map.Adjacency;
+import map.Map;
+import map.Region;
+import map.SuperRegion;
+
+/**
+ * @author PandaCoders A map for the Arena to play on, with the setup_map
+ *         commands that describe it to the bots. Generated maps look like the
+ *         engine's: SuperRegions of about six Regions, every Region a handful
+ *         of neighbors and a few wastelands.
+ */
+public class GameMap {
+
+	// the Regions per SuperRegion of a generated map
+	private static final int SUPER_REGION_SIZE = 6;
+
+	// the armies on wastelands and on the other neutral Regions
+	public static final int WASTELAND_ARMIES = 6;
+	public static final int NEUTRAL_ARMIES = 2;
+
+	private final Map map;
+	private final boolean[] isWasteland;
+
+	private GameMap(Map map, boolean[] isWasteland) {
+		this.map = map;
+		this.isWasteland = isWasteland;
+	}
+
+	/**
+	 * @param regions
+	 *            the number of Regions, at least 2
+	 * @param random
+	 * @return A new connected map
+	 */
+	public static GameMap generate(int regions, Random random) {
+		Map map = new Map();
+		int superRegions = Math.max(2, regions / SUPER_REGION_SIZE);
+		map.ensureSuperRegionCapacity(superRegions);
+		map.ensureRegionCapacity(regions);
+		for (int s = 1; s <= superRegions; s++)
+			map.add(new SuperRegion(s, 1 + random.nextInt(6)));
+		for (int r = 1; r <= regions; r++)
+			map.add(new Region(r, map.getSuperRegion(Math.min(superRegions,
+					(r - 1) / SUPER_REGION_SIZE + 1))));
+
+		// a chain of nearby regions keeps the map connected, a few random
+		// edges make it less regular
+		for (int r = 2; r <= regions; r++)
+			map.getRegion(r).addNeighbor(
+					map.getRegion(Math.max(1, r - 1 - random.nextInt(8))));
+		for (int i = 0; i < regions / 2; i++) {
+			int a = 1 + random.nextInt(regions), b = 1 + random.nextInt(regions);
+			if (a != b)
+				map.getRegion(a).addNeighbor(map.getRegion(b));
+		}
+
+		boolean[] isWasteland = new boolean[regions + 1];
+		for (int i = 0; i < Math.max(1, regions / 10); i++)
+			isWasteland[1 + random.nextInt(regions)] = true;
+		return new GameMap(map, isWasteland);
+	}
+
+	/**
+	 * @return The map; its state is the one at the start of the game
+	 */
+	public Map getMap() {
+		return map;
+	}
+
+	public boolean isWasteland(int regionId) {
+		return regionId < isWasteland.length && isWasteland[regionId];
+	}
+
+	/**
+	 * @return The setup_map commands of the map
+	 */
+	public List<String> getSetupCommands() {
+		List<String> commands = new ArrayList<String>();
+
+		StringBuilder line = new StringBuilder("setup_map super_regions");
+		for (SuperRegion superRegion : map.getSuperRegions())
+			line.append(' ').append(superRegion.getId()).append(' ')
+					.append(superRegion.getArmiesReward());
+		commands.add(line.toString());
+
+		line = new StringBuilder("setup_map regions");
+		for (Region region : map.getRegions())
+			line.append(' ').append(region.getId()).append(' ')
+					.append(region.getSuperRegion().getId());
+		commands.add(line.toString());
+
+		Adjacency adjacency = map.getAdjacency();
+		line = new StringBuilder("setup_map neighbors");
+		for (int id = 0; id < adjacency.size(); id++) {
+			boolean first = true;
+			for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+				if (adjacency.target(k) > id) {
+					line.append(first ? " " + id + " " : ",").append(
+							adjacency.target(k));
+					first = false;
+				}
+		}
+		commands.add(line.toString());
+
+		line = new StringBuilder("setup_map wastelands");
+		for (int id = 0; id < isWasteland.length; id++)
+			if (isWasteland[id])
+				line.append(' ').append(id);
+		commands.add(line.toString());
+		return commands;
+	}
+
+	/**
+	 * @return The Region ids the players may pick from: a random
+	 *         non-wasteland Region of every SuperRegion
+	 */
+	public int[] getPickableRegions(Random random) {
+		int[] pickable = new int[map.getSuperRegions().size()];
+		int count = 0;
+		for (SuperRegion superRegion : map.getSuperRegions()) {
+			List<Region> candidates = new ArrayList<Region>();
+			for (Region region : superRegion.getSubRegions())
+				if (!isWasteland(region.getId()))
+					candidates.add(region);
+			if (!candidates.isEmpty())
+				pickable[count++] = candidates.get(
+						random.nextInt(candidates.size())).getId();
+		}
+		return Arrays.copyOf(pickable, count);
+	}
+
+}
@@ -0,0 +1,44 @@
+package arena;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders The times a bot took to answer, in nanoseconds, with
+ *         their percentiles.
+ */
+public class Latencies {
+
+	private long[] nanos = new long[64];
+	private int count;
+
+	public void add(long time) {
+		if (count == nanos.length)
+			nanos = Arrays.copyOf(nanos, 2 * count);
+		nanos[count++] = time;
+	}
+
+	public void addAll(Latencies other) {
+		for (int i = 0; i < other.count; i++)
+			add(other.nanos[i]);
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param percent
+	 *            between 0 and 100
+	 * @return The time at least that percent of the answers took at most, 0
+	 *         if there are none
+	 */
+	public long percentile(double percent) {
+		if (count == 0)
+			return 0;
+		long[] sorted = Arrays.copyOf(nanos, count);
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percent / 100 * count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, rank))];
+	}
+
+}
@@ -0,0 +1,149 @@
+package arena;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import bot.Bot;
+import bot.BotParser;
+
+/**
+ * @author PandaCoders The Arena's connection to a bot, which speaks the
+ *         engine's protocol: commands are written to it line by line and its
+ *         answers are read back. The bot runs in this process, behind a
+ *         BotParser on a thread of its own, or as a separate process.
+ */
+public class Player {
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	// the size of the pipes between the Arena and an in-process bot
+	private static final int PIPE_SIZE = 1 << 16;
+
+	private final Writer out;
+	private final BlockingQueue<String> answers = new LinkedBlockingQueue<String>();
+	private final Process process;
+
+	// answers that came too late, to be thrown away when they arrive
+	private int late;
+
+	private Player(OutputStream toBot, final InputStream fromBot,
+			Process process) {
+		this.out = new OutputStreamWriter(toBot, ASCII);
+		this.process = process;
+
+		Thread reader = new Thread("player answers") {
+			@Override
+			public void run() {
+				BufferedReader in = new BufferedReader(new InputStreamReader(
+						fromBot, ASCII));
+				try {
+					String line;
+					while ((line = in.readLine()) != null)
+						answers.add(line);
+				} catch (IOException e) {
+					// the bot is gone, it won't answer any more
+				}
+			}
+		};
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Runs the bot behind a BotParser in this process.
+	 */
+	public static Player inProcess(final Bot bot) throws IOException {
+		PipedOutputStream toBot = new PipedOutputStream();
+		final PipedInputStream botIn = new PipedInputStream(toBot, PIPE_SIZE);
+		PipedInputStream fromBot = new PipedInputStream(PIPE_SIZE);
+		final PipedOutputStream botOut = new PipedOutputStream(fromBot);
+
+		Thread thread = new Thread("bot") {
+			@Override
+			public void run() {
+				new BotParser(bot, botIn, botOut).run();
+				try {
+					botOut.close();
+				} catch (IOException e) {
+					// nobody is reading any more
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+		return new Player(toBot, fromBot, null);
+	}
+
+	/**
+	 * Starts the bot as a separate process.
+	 *
+	 * @param command
+	 *            the command line that starts the bot, e.g.
+	 *            "java -jar bot.jar"
+	 */
+	public static Player process(String command) throws IOException {
+		ProcessBuilder builder = new ProcessBuilder(command.trim()
+				.split("\\s+"));
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process process = builder.start();
+		return new Player(process.getOutputStream(), process.getInputStream(),
+				process);
+	}
+
+	/**
+	 * Writes a command to the bot.
+	 */
+	public void send(String command) throws IOException {
+		out.write(command);
+		out.write('\n');
+		out.flush();
+	}
+
+	/**
+	 * Waits for the bot's answer to the last command that asked for one.
+	 *
+	 * @param timeoutMillis
+	 *            how long to wait at most
+	 * @return The answer, null if the bot didn't answer in time
+	 */
+	public String receive(long timeoutMillis) throws InterruptedException {
+		long end = System.nanoTime() + timeoutMillis * 1000000L;
+		while (true) {
+			long left = end - System.nanoTime();
+			String answer = answers.poll(Math.max(0, left),
+					TimeUnit.NANOSECONDS);
+			if (answer == null) {
+				late++;
+				return null;
+			}
+			if (late == 0)
+				return answer;
+			late--;
+		}
+	}
+
+	/**
+	 * Ends the connection; the bot stops when it reads the end of its input.
+	 */
+	public void close() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			// the bot is already gone
+		}
+		if (process != null)
+			process.destroy();
+	}
+
+}
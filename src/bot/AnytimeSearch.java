@@ -0,0 +1,22 @@
+package bot;
+
+/**
+ * @author PandaCoders A search that can be stopped at any time and still
+ *         give the best result it found so far. See Deadline.run.
+ */
+public interface AnytimeSearch<T> {
+
+	/**
+	 * Does a small, bounded amount of work towards a better result.
+	 * 
+	 * @return False if the search is done and can't improve any more
+	 */
+	public boolean improve();
+
+	/**
+	 * @return The best result found so far; searches should start with a
+	 *         cheap fallback, since the deadline may pass before they improve
+	 */
+	public T getBest();
+
+}
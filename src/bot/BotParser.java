@@ -10,80 +10,350 @@
 
 package bot;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
 
+import bot.Profiler.Section;
+import bot.TimeManager.Phase;
+import map.Map;
+import map.Owner;
 import map.Region;
 import move.PlaceArmiesMove;
 import move.AttackTransferMove;
 
 public class BotParser {
 	
-	final Scanner scan;
+	final CommandReader reader;
 	
 	final Bot bot;
 	
 	BotState currentState;
 	
+	// the answers to the engine, flushed once per command
+	private final Writer out;
+	private final StringBuilder output = new StringBuilder(1024);
+	private char[] outputChars = new char[1024];
+	
+	// where the profile of the game is printed when it ends, null if the
+	// game isn't profiled
+	private PrintStream profileOut;
+	
+	// buffers the commands are read into, reused for every command
+	private int[] ids = new int[64];
+	private int[] otherIds = new int[64];
+	private int[] values = new int[64];
+	private byte[] owners = new byte[64];
+	
 	public BotParser(Bot bot)
 	{
-		this.scan = new Scanner(System.in);
+		this(bot, System.in);
+	}
+	
+	public BotParser(Bot bot, InputStream in)
+	{
+		this(bot, in, System.out);
+	}
+	
+	public BotParser(Bot bot, InputStream in, OutputStream out)
+	{
+		this.reader = new CommandReader(in);
+		this.out = new BufferedWriter(new OutputStreamWriter(out, Charset.forName("US-ASCII")), 1 << 16);
 		this.bot = bot;
 		this.currentState = new BotState();
 	}
 	
+	/**
+	 * Measures the parts of every turn and prints their profile when the game ends
+	 * @param out : where the profile goes; not System.out, that is read by the engine
+	 */
+	public void setProfileOutput(PrintStream out)
+	{
+		if(out != null && profileOut == null)
+		{
+			// the engine may kill the bot when the game ends instead of closing its input
+			Runtime.getRuntime().addShutdownHook(new Thread()
+			{
+				@Override
+				public void run()
+				{
+					reportProfile();
+				}
+			});
+		}
+		profileOut = out;
+		currentState.getProfiler().setEnabled(out != null);
+	}
+	
+	// prints the profile, once
+	private synchronized void reportProfile()
+	{
+		if(profileOut == null)
+			return;
+		currentState.getProfiler().report(profileOut);
+		profileOut = null;
+	}
+	
 	public void run()
 	{
-		while(scan.hasNextLine())
+		Profiler profiler = currentState.getProfiler();
+		try
 		{
-			String line = scan.nextLine().trim();
-			if(line.length() == 0) { continue; }
-			String[] parts = line.split(" ");
-			if(parts[0].equals("pick_starting_region")) //pick which regions you want to start with
+			while(reader.nextLine())
 			{
-				currentState.setPickableStartingRegions(parts);
-				Region startingRegion = bot.getStartingRegion(currentState, Long.valueOf(parts[1]));
-				
-				System.out.println(startingRegion.getId());
+				reader.nextToken();
+				profiler.begin(Section.COMMAND);
+				try
+				{
+					parseCommand();
+				}
+				catch(NumberFormatException e)
+				{
+					System.err.println("Unable to parse command " + e.getMessage());
+				}
+				finally
+				{
+					profiler.end(Section.COMMAND);
+				}
 			}
-			else if(parts.length == 3 && parts[0].equals("go")) 
+		}
+		catch(IOException e)
+		{
+			System.err.println("Unable to read commands " + e.getMessage());
+		}
+		reportProfile();
+	}
+	
+	/**
+	 * Handles the command whose first token was just read
+	 */
+	private void parseCommand() throws IOException
+	{
+		if(reader.tokenEquals("pick_starting_region")) //pick which regions you want to start with
+		{
+			long timeOut = reader.readLong();
+			int count = readIds();
+			currentState.setPickableStartingRegions(ids, count);
+			timeManager().startPhase(Phase.PICK_STARTING_REGION, timeOut, currentState.getRoundNumber());
+			Region startingRegion = bot.getStartingRegion(currentState, timeOut);
+			timeManager().endPhase();
+			
+			output.append(startingRegion.getId());
+			flushOutput();
+		}
+		else if(reader.tokenEquals("go")) 
+		{
+			//we need to do a move
+			reader.nextToken();
+			boolean placeArmies = reader.tokenEquals("place_armies");
+			boolean attackTransfer = reader.tokenEquals("attack/transfer");
+			long timeOut = reader.readLong();
+			if(placeArmies) 
 			{
-				//we need to do a move
-				String output = "";
-				if(parts[1].equals("place_armies")) 
+				//place armies
+				timeManager().startPhase(Phase.PLACE_ARMIES, timeOut, currentState.getRoundNumber());
+				ArrayList<PlaceArmiesMove> placeArmiesMoves = bot.getPlaceArmiesMoves(currentState, timeOut);
+				timeManager().endPhase();
+				for(PlaceArmiesMove move : placeArmiesMoves)
 				{
-					//place armies
-					ArrayList<PlaceArmiesMove> placeArmiesMoves = bot.getPlaceArmiesMoves(currentState, Long.valueOf(parts[2]));
-					for(PlaceArmiesMove move : placeArmiesMoves)
-						output = output.concat(move.getString() + ",");
-				} 
-				else if(parts[1].equals("attack/transfer")) 
+					move.appendTo(output);
+					output.append(',');
+				}
+			} 
+			else if(attackTransfer) 
+			{
+				//attack/transfer
+				timeManager().startPhase(Phase.ATTACK_TRANSFER, timeOut, currentState.getRoundNumber());
+				ArrayList<AttackTransferMove> attackTransferMoves = bot.getAttackTransferMoves(currentState, timeOut);
+				timeManager().endPhase();
+				for(AttackTransferMove move : attackTransferMoves)
 				{
-					//attack/transfer
-					ArrayList<AttackTransferMove> attackTransferMoves = bot.getAttackTransferMoves(currentState, Long.valueOf(parts[2]));
-					for(AttackTransferMove move : attackTransferMoves)
-						output = output.concat(move.getString() + ",");
+					move.appendTo(output);
+					output.append(',');
+				}
+			}
+			if(output.length() == 0)
+				output.append("No moves");
+			flushOutput();
+		} else if(reader.tokenEquals("settings")) {
+			//update settings
+			parseSettings();
+		} else if(reader.tokenEquals("setup_map")) {
+			//initial full map is given
+			parseSetupMap();
+		} else if(reader.tokenEquals("update_map")) {
+			//all visible regions are given
+			int count = 0;
+			while(reader.hasMoreTokens())
+			{
+				ensureCapacity(count + 1);
+				ids[count] = reader.readInt();
+				owners[count] = readOwner();
+				values[count] = reader.readInt();
+				count++;
+			}
+			currentState.updateMap(ids, owners, values, count);
+		} else if(reader.tokenEquals("opponent_moves")) {
+			//all visible opponent moves are given
+			int count = 0;
+			while(reader.hasMoreTokens())
+			{
+				ensureCapacity(count + 1);
+				owners[count] = readOwner();
+				reader.nextToken();
+				if(reader.tokenEquals("place_armies"))
+				{
+					ids[count] = reader.readInt();
+					otherIds[count] = -1;
+				}
+				else if(reader.tokenEquals("attack/transfer"))
+				{
+					ids[count] = reader.readInt();
+					otherIds[count] = reader.readInt();
 				}
-				if(output.length() > 0)
-					System.out.println(output);
 				else
-					System.out.println("No moves");
-			} else if(parts[0].equals("settings")) {
-				//update settings
-				currentState.updateSettings(parts[1], parts);
-			} else if(parts[0].equals("setup_map")) {
-				//initial full map is given
-				currentState.setupMap(parts);
-			} else if(parts[0].equals("update_map")) {
-				//all visible regions are given
-				currentState.updateMap(parts);
-			} else if(parts[0].equals("opponent_moves")) {
-				//all visible opponent moves are given
-				currentState.readOpponentMoves(parts);
-			} else {
-				System.err.printf("Unable to parse line \"%s\"\n", line);
+					throw new NumberFormatException("Unknown opponent move " + reader.tokenAsString());
+				values[count] = reader.readInt();
+				count++;
+			}
+			currentState.readOpponentMoves(owners, ids, otherIds, values, count);
+		} else {
+			System.err.printf("Unable to parse line starting with \"%s\"\n", reader.tokenAsString());
+		}
+	}
+	
+	private void parseSettings() throws IOException
+	{
+		reader.nextToken();
+		if(reader.tokenEquals("starting_regions"))
+			currentState.setPickableStartingRegions(ids, readIds());
+		else if(reader.tokenEquals("your_bot"))
+		{
+			reader.nextToken();
+			currentState.setMyPlayerName(reader.tokenAsString());
+		}
+		else if(reader.tokenEquals("opponent_bot"))
+		{
+			reader.nextToken();
+			currentState.setOpponentPlayerName(reader.tokenAsString());
+		}
+		else if(reader.tokenEquals("max_rounds"))
+			currentState.setMaxRounds(reader.readInt());
+		else if(reader.tokenEquals("timebank"))
+			currentState.setTimebank(reader.readLong());
+		else if(reader.tokenEquals("time_per_move"))
+			currentState.setTimePerMove(reader.readLong());
+		else if(reader.tokenEquals("starting_armies"))
+			currentState.setStartingArmies(reader.readInt());
+	}
+	
+	private void parseSetupMap() throws IOException
+	{
+		reader.nextToken();
+		int count = 0;
+		if(reader.tokenEquals("super_regions"))
+		{
+			count = readPairs();
+			currentState.setupSuperRegions(ids, values, count);
+		}
+		else if(reader.tokenEquals("regions"))
+		{
+			count = readPairs();
+			currentState.setupRegions(ids, values, count);
+		}
+		else if(reader.tokenEquals("neighbors"))
+		{
+			//every region is followed by a comma separated list of its neighbors
+			while(reader.hasMoreTokens())
+			{
+				int regionId = reader.readInt();
+				do
+				{
+					ensureCapacity(count + 1);
+					ids[count] = regionId;
+					otherIds[count] = reader.readInt();
+					count++;
+				}
+				while(reader.followedByComma());
 			}
+			currentState.setupNeighbors(ids, otherIds, count);
 		}
+		else if(reader.tokenEquals("wastelands"))
+			currentState.setupWastelands(ids, readIds());
+	}
+	
+	private TimeManager timeManager()
+	{
+		return currentState.getTimeManager();
+	}
+	
+	// writes the output buffer as one line and empties it
+	private void flushOutput() throws IOException
+	{
+		int length = output.length();
+		if(length > outputChars.length)
+			outputChars = new char[2 * length];
+		output.getChars(0, length, outputChars, 0);
+		out.write(outputChars, 0, length);
+		out.write('\n');
+		out.flush();
+		output.setLength(0);
+	}
+	
+	// reads the rest of the line as ids
+	private int readIds() throws IOException
+	{
+		int count = 0;
+		while(reader.hasMoreTokens())
+		{
+			ensureCapacity(count + 1);
+			ids[count] = reader.readInt();
+			count++;
+		}
+		return count;
+	}
+	
+	// reads the rest of the line as (id, value) pairs
+	private int readPairs() throws IOException
+	{
+		int count = 0;
+		while(reader.hasMoreTokens())
+		{
+			ensureCapacity(count + 1);
+			ids[count] = reader.readInt();
+			values[count] = reader.readInt();
+			count++;
+		}
+		return count;
+	}
+	
+	// reads a player name and returns its Owner code
+	private byte readOwner() throws IOException
+	{
+		reader.nextToken();
+		Map map = currentState.getFullMap();
+		for(byte owner = 0; owner < Owner.COUNT; owner++)
+			if(reader.tokenEquals(map.getPlayerName(owner)))
+				return owner;
+		return Owner.UNKNOWN;
+	}
+	
+	private void ensureCapacity(int count)
+	{
+		if(count <= ids.length)
+			return;
+		int size = 2 * count;
+		ids = Arrays.copyOf(ids, size);
+		otherIds = Arrays.copyOf(otherIds, size);
+		values = Arrays.copyOf(values, size);
+		owners = Arrays.copyOf(owners, size);
 	}
 
 }
@@ -17,59 +17,68 @@ package bot;
  * a new instance of your bot, and then the parser is started.
  */
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
-
+import java.util.List;
+
+import bot.Profiler.Section;
+import map.Adjacency;
+import map.Frontier;
+import map.IdQueue;
+import map.Map;
+import map.Owner;
 import map.Region;
+import map.RegionSet;
 import map.SuperRegion;
 import move.AttackTransferMove;
 import move.PlaceArmiesMove;
 
 public class BotStarter implements Bot {
+
+	// the neighbors an edge Region can attack, reused for every edge Region
+	private final IdQueue targets = new IdQueue(16);
+
+	// the neighbors the armies to capture them were placed for this round
+	private final RegionSet funded = new RegionSet(0);
+	// the neighbors we wanted to capture this round but couldn't afford
+	private final RegionSet unfunded = new RegionSet(0);
+
+	public BotStarter() {
+	}
+
+	/**
+	 * The bot makes no random choices; the seed is taken so it can be
+	 * created like the other bots.
+	 * 
+	 * @param seed
+	 *            ignored
+	 */
+	public BotStarter(long seed) {
+	}
+
 	@Override
 	/**
 	 * A method that returns which region the bot would like to start on, the pickable regions are stored in the BotState.
-	 * It decides on the superRegions with most value and picks a Region from each to start with
+	 * It decides on the superRegions with most value (see PickPlanner) and picks a Region from each to start with
 	 */
 	public Region getStartingRegion(BotState state, Long timeOut) {
 		ArrayList<Region> pickableStartingRegions = state
 				.getPickableStartingRegions();
 
-		// Pick the region from the superRegion with the highest priority
-		Region max = pickableStartingRegions.get(0);
-		max.getSuperRegion().computePriority();
-
-		for (int i = 1; i < pickableStartingRegions.size(); i++) {
-			Region region = pickableStartingRegions.get(i);
-			SuperRegion superRegion = region.getSuperRegion();
-			superRegion.computePriority();
-			Float maxPriority = max.getSuperRegion().getPriority();
-			Float priority = superRegion.getPriority();
-
-			if (priority > maxPriority)
-				max = region;
-			else if (priority.equals(maxPriority)) {
-				int maxNoRegions = max.getSuperRegion().getSubRegions().size();
-				int noRegions = superRegion.getSubRegions().size();
-
-				if (maxNoRegions > noRegions)
-					max = region;
-			}
-		}
-
-		int regionId = max.getId();
-		Region startingRegion = state.getFullMap().getRegion(regionId);
+		// Pick the region from the superRegion with the highest value, ranked
+		// when the map was set up
+		Region startingRegion = state.getPickPlanner().pick(
+				pickableStartingRegions);
 		SuperRegion superRegion = startingRegion.getSuperRegion();
-		LinkedList<SuperRegion> superRegToConquer = state
-				.getSuperRegToConquer();
-
 		// Add the SuperRegion to the list of SuperRegions we want
 		// to conquer
-		if (!superRegToConquer.contains(superRegion)) {
+		if (state.addSuperRegToConquer(superRegion))
 			superRegion.computePriority();
-			superRegToConquer.add(superRegion);
-		}
 		return startingRegion;
 	}
 
@@ -82,7 +91,7 @@ public class BotStarter implements Bot {
 	 * @param name
 	 * @return
 	 */
-	public int defend(LinkedList<Region> regions, int armiesLeft,
+	public int defend(List<Region> regions, int armiesLeft,
 			ArrayList<PlaceArmiesMove> placeArmiesMoves, String name) {
 
 		// if we have armies left after protecting what we can surely protect,
@@ -122,8 +131,10 @@ public class BotStarter implements Bot {
 	}
 
 	/**
-	 * Deploys armies in order to expand. It deploys armies based on which
-	 * regions are in the SuperRegions' priorities.
+	 * Deploys armies in order to expand. It deploys the armies needed to
+	 * capture the neighbors in the SuperRegions we want, in the order the
+	 * ConquestPlanner funds the SuperRegions. The neighbors it can't afford
+	 * are left to the DeploymentOptimizer, which values them the most.
 	 * 
 	 * @param superRegions
 	 * @param edgeRegions
@@ -133,9 +144,8 @@ public class BotStarter implements Bot {
 	 * @return
 	 */
 	public int deployToExpand(LinkedList<SuperRegion> superRegions,
-			LinkedList<Region> edgeRegions, int armiesLeft,
+			List<Region> edgeRegions, int armiesLeft,
 			ArrayList<PlaceArmiesMove> placeArmiesMoves, BotState state) {
-		Region notEnough = null;
 		String myName = state.getMyPlayerName();
 
 		// Clear the list of attacks/tranfers (they were the attacks from the
@@ -143,9 +153,12 @@ public class BotStarter implements Bot {
 		state.clearAttackTransferMove();
 
 		// Deploy the armies in the regions which belong to the SuperRegions
-		// with
-		// the biggest priorities
-		for (SuperRegion superRegion : superRegions) {
+		// in the order the planner funds them
+		List<SuperRegion> plan = state.getConquestPlanner().plan(
+				superRegions, state.getStartingArmies());
+		funded.clear();
+		unfunded.clear();
+		for (SuperRegion superRegion : plan) {
 			for (Region region : edgeRegions) {
 				LinkedList<Region> neighbors = region.getNeighbors();
 
@@ -155,9 +168,9 @@ public class BotStarter implements Bot {
 				// armies needed to conquer
 				// those neighbors.
 				for (Region neighbor : neighbors)
-					if (!neighbor.ownedByPlayer(myName)
+					if (!neighbor.ownedBy(Owner.ME)
 							&& neighbor.getSuperRegion().getId() == superRegion
-									.getId()) {
+									.getId() && !funded.contains(neighbor.getId())) {
 						int neededArmies = neighbor.armiesNeededToCapture();
 						int toDeploy = neededArmies - region.getArmies() + 1;
 
@@ -165,38 +178,21 @@ public class BotStarter implements Bot {
 							toDeploy += region.getArmiesForDefense();
 
 						if (toDeploy > 0)
-							if (armiesLeft >= neededArmies) {
+							if (armiesLeft >= toDeploy) {
 								placeArmiesMoves.add(new PlaceArmiesMove(
 										myName, region, toDeploy));
 								region.setArmies(toDeploy + region.getArmies());
 								state.addAttackTransferMove(new AttackTransferMove(
 										myName, region, neighbor, neededArmies));
+								funded.add(neighbor.getId());
 								armiesLeft -= toDeploy;
 							}
-							// If we will have armies left, this will be the
-							// region in which we will
-							// add the rest of the armies in order to conquer
-							// their neighbor later
-							else {
-								if (notEnough == null)
-									notEnough = region;
-								else if (notEnough.getPriority() < region
-										.getPriority())
-									notEnough = region;
-							}
-
-						if (armiesLeft <= 0)
-							break;
-						else if (notEnough != null) {
-							placeArmiesMoves.add(new PlaceArmiesMove(myName,
-									notEnough, armiesLeft));
-							notEnough.setArmies(armiesLeft
-									+ notEnough.getArmies());
-							armiesLeft = 0;
-						}
+							else
+								unfunded.add(neighbor.getId());
 					}
 			}
 		}
+
 		return armiesLeft;
 	}
 
@@ -205,19 +201,20 @@ public class BotStarter implements Bot {
 	 * This method is called for at first part of each round. 
 	 * We first determine the Regions we need to defend and add armies respectively
 	 * and then determine where we need more armies in order to extend 
-	 * (conquer the superRegions in the we have already decided on)
+	 * (conquer the superRegions in the we have already decided on).
+	 * The armies left are split between our edges by the DeploymentOptimizer
 	 * @return The list of PlaceArmiesMoves for one round
 	 */
 	public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state,
 			Long timeOut) {
 		ArrayList<PlaceArmiesMove> placeArmiesMoves = new ArrayList<PlaceArmiesMove>();
 		String myName = state.getMyPlayerName();
-		int armies = 2;
 		int armiesLeft = state.getStartingArmies();
+		Profiler profiler = state.getProfiler();
 
 		// Determine the edges
 		state.detMyEdgeTerritories();
-		LinkedList<Region> edgeTerritories = state.getMyEdgeTerritories();
+		ArrayList<Region> edgeTerritories = state.getMyEdgeTerritories();
 		boolean visibleEnemies = false;
 
 		// See if there are visible enemies
@@ -233,8 +230,10 @@ public class BotStarter implements Bot {
 		// If there are enemies neighboring our territories,
 		// defend our territories
 		if (visibleEnemies) {
+			profiler.begin(Section.DEFEND);
 			armiesLeft = defend(edgeTerritories, armiesLeft, placeArmiesMoves,
 					myName);
+			profiler.end(Section.DEFEND);
 
 			if (armiesLeft <= 0)
 				return placeArmiesMoves;
@@ -245,17 +244,7 @@ public class BotStarter implements Bot {
 				.getSuperRegToConquer();
 
 		// See if some of the targets are captured and remove them
-		for (int i = 0; i < superRegionsToConquer.size(); i++) {
-
-			SuperRegion superRegion = superRegionsToConquer.get(i);
-			SuperRegion superReg = state.getFullMap().getSuperRegion(
-					superRegion.getId());
-
-			if (superReg.ownedByPlayer().equals(myName)) {
-				superRegionsToConquer.remove(i);
-				i--;
-			}
-		}
+		state.removeOwnedSuperRegToConquer();
 
 		// If we're done capturing all the planned SuperRegions, add new targets
 		if (superRegionsToConquer.isEmpty()) {
@@ -265,12 +254,9 @@ public class BotStarter implements Bot {
 				for (Region neighbor : neighbors) {
 					SuperRegion superRegion = neighbor.getSuperRegion();
 
-					if (!superRegion.ownedByPlayer().equals(myName)) {
-						if (!superRegionsToConquer.contains(superRegion)) {
-							superRegion.computePriority();
-							superRegionsToConquer.add(superRegion);
-						}
-					}
+					if (!superRegion.ownedBy(Owner.ME)
+							&& state.addSuperRegToConquer(superRegion))
+						superRegion.computePriority();
 				}
 			}
 		}
@@ -280,104 +266,126 @@ public class BotStarter implements Bot {
 		state.sortTerritories(superRegionsToConquer);
 
 		// Deploy armies to the regions from which we want to expand
+		profiler.begin(Section.DEPLOY_TO_EXPAND);
 		armiesLeft = deployToExpand(superRegionsToConquer, edgeTerritories,
 				armiesLeft, placeArmiesMoves, state);
+		profiler.end(Section.DEPLOY_TO_EXPAND);
 		if (armiesLeft <= 0)
 			return placeArmiesMoves;
 
-		// Random placement, but chooses from our edges
-		while (armiesLeft > 0) {
-			double rand = Math.random();
-			int r = (int) (rand * edgeTerritories.size());
-			Region region = edgeTerritories.get(r);
-
-			if (region.ownedByPlayer(myName)) {
-				placeArmiesMoves
-						.add(new PlaceArmiesMove(myName, region, armies));
-				region.setArmies(armies + region.getArmies());
-				armiesLeft -= armies;
+		// Split the rest between our edges where they are worth the most
+		profiler.begin(Section.DEPLOY_REST);
+		int[] allocation = state.getDeploymentOptimizer().allocate(
+				edgeTerritories, armiesLeft, state.getSuperRegToConquerIds(),
+				funded, unfunded);
+		int i = 0;
+		for (Region region : edgeTerritories) {
+			int toDeploy = allocation[i++];
+			if (toDeploy > 0) {
+				placeArmiesMoves.add(new PlaceArmiesMove(myName, region,
+						toDeploy));
+				region.setArmies(toDeploy + region.getArmies());
 			}
 		}
+		profiler.end(Section.DEPLOY_REST);
 
 		return placeArmiesMoves;
 	}
 
-	 /**
-	  * The regions that have no neighboring enemies or neutral lands have no use for their armies.
-	  * This method uses a breatdh-first search to determine where these idle armies should be
-	  * transfered to.
-	  * @param state
-	  * @return
-	  */
-	 private ArrayList<AttackTransferMove> getIdleArmiesTransferMoves(
-	   BotState state) {
-	  
-	  ArrayList<AttackTransferMove> res = new ArrayList<AttackTransferMove>();
-	  LinkedList<Region> innerRegions = state.getMyInnerTerritories();
-	  LinkedList<Region> edgeTerritories = state.getMyEdgeTerritories();
-
-	  //We process every region that has idle armies
-	  for (Region innerRegion : innerRegions)
-	   if (innerRegion.getArmies() > 1) {
-
-	    LinkedList<Region> edgeNeighbors = new LinkedList<Region>();
-	    LinkedList<Region> neighbors = innerRegion.getNeighbors();
-	    
-	    //We look for edges we could move into right now
-	    for (Region neighbor : neighbors)
-	     if (edgeTerritories.contains(neighbor))
-	      edgeNeighbors.add(neighbor);
-
-	    //If we find any, we move into the highest priority one
-	    if (!edgeNeighbors.isEmpty()) {
-	     state.sortTerritories(edgeNeighbors);
-	     res.add(new AttackTransferMove(state.getMyPlayerName(),
-	       innerRegion, edgeNeighbors.get(0), innerRegion
-	         .getArmies() - 1));
-	    } else {
-	     //We use an auxiliary list: when we reach an edge, this list determines what
-	     //neighbor we found it from
-	     LinkedList<Region> from = new LinkedList<Region>();
-	     from.addAll(neighbors);
-	     
-	     //We reuse edgeNeighbors as a queue
-	     ArrayList<Region> temp = new ArrayList<Region>();
-	     edgeNeighbors = neighbors;
-	     
-	     //We start the BFS
-	     int curr = 0;
-	     while (curr < edgeNeighbors.size()) {
-	      LinkedList<Region> tempNeighbors = edgeNeighbors.get(
-	        curr).getNeighbors();
-	      for (Region next : tempNeighbors)
-	       //Check if we found an edge
-	       if (edgeTerritories.contains(next)) {
-	        temp.add(next);
-	       }
-	       else {
-	        if (!edgeNeighbors.contains(next)) {
-	         from.add(from.get(curr));
-	         edgeNeighbors.add(next);
-	        }
-	       }
-	      ++curr;
-	     }
-
-	     //We sort the edges we found to get the highest priority one,
-	     //then determine how we got to that edge and transfer everything to that particular region
-	     state.sortTerritories(temp);
-	     for (int i = 0; i < edgeNeighbors.size(); ++i)
-	      if (edgeNeighbors.get(i) == temp.get(0)) {
-	       res.add(new AttackTransferMove(state
-	         .getMyPlayerName(), innerRegion, from
-	         .get(i), innerRegion.getArmies() - 1));
-	       break;
-	      }
-	    }
-	   }
-
-	  return res;
-	 }
+	/**
+	 * The regions that have no neighboring enemies or neutral lands have no use
+	 * for their armies. This method uses a breadth-first search through our
+	 * regions to determine the closest edge these idle armies should be
+	 * transfered to. The search starts from all the edges at once, so every
+	 * inner region learns its closest edge and the first step towards it in a
+	 * single pass; of equally close edges the one with the highest priority
+	 * (then the smallest id) is chosen.
+	 * 
+	 * @param state
+	 * @return
+	 */
+	private ArrayList<AttackTransferMove> getIdleArmiesTransferMoves(
+			BotState state) {
+
+		ArrayList<AttackTransferMove> res = new ArrayList<AttackTransferMove>();
+		ArrayList<Region> innerRegions = state.getMyInnerTerritories();
+		Frontier frontier = state.getFrontier();
+		RegionSet edges = frontier.getEdges();
+		String myName = state.getMyPlayerName();
+		Map map = state.getFullMap();
+		Adjacency adjacency = map.getAdjacency();
+		int size = adjacency.size();
+
+		// The BFS queue, the distance of every reached region to its closest
+		// edge, the best of those edges and the step towards it
+		int[] queue = new int[size];
+		int[] distance = new int[size];
+		int[] bestEdge = new int[size];
+		int[] step = new int[size];
+		Arrays.fill(distance, -1);
+
+		int head = 0, tail = 0;
+		for (int id = edges.first(); id >= 0; id = edges.next(id + 1)) {
+			map.getRegion(id).computePriority();
+			distance[id] = 0;
+			bestEdge[id] = id;
+			queue[tail++] = id;
+		}
+
+		// Level by level, so the regions of a level have heard from all their
+		// neighbors closer to the edges before they pass their best edge on
+		while (head < tail) {
+			int curr = queue[head++];
+			for (int k = adjacency.begin(curr); k < adjacency.end(curr); k++) {
+				int next = adjacency.target(k);
+				if (!frontier.isInner(next))
+					continue;
+				if (distance[next] < 0) {
+					distance[next] = distance[curr] + 1;
+					bestEdge[next] = bestEdge[curr];
+					step[next] = curr;
+					queue[tail++] = next;
+				} else if (distance[next] == distance[curr] + 1
+						&& isBetterEdge(map, bestEdge[curr], bestEdge[next])) {
+					bestEdge[next] = bestEdge[curr];
+					step[next] = curr;
+				}
+			}
+		}
+
+		// We transfer everything towards the best edge
+		for (Region innerRegion : innerRegions) {
+			int id = innerRegion.getId();
+			if (innerRegion.getArmies() > 1 && distance[id] > 0)
+				res.add(new AttackTransferMove(myName, innerRegion, map
+						.getRegion(step[id]), innerRegion.getArmies() - 1));
+		}
+
+		return res;
+	}
+
+	/**
+	 * @return True if the edge with id edge has a higher priority than the
+	 *         one with id other, or the same priority and a smaller id
+	 */
+	private static boolean isBetterEdge(Map map, int edge, int other) {
+		float priority = map.getRegion(edge).getPriority();
+		float otherPriority = map.getRegion(other).getPriority();
+		return priority > otherPriority
+				|| (priority == otherPriority && edge < other);
+	}
+
+	/**
+	 * @return The key of an attack target in the targets queue, smallest is
+	 *         attacked first: first the neighbors in the SuperRegions we want
+	 *         to conquer, each group in ascending order of their armies, and
+	 *         of neighbors with the same armies the later one in the adjacency
+	 */
+	private static long targetKey(boolean inOurSuperRegion, int armies,
+			int adjacencyIndex) {
+		return (inOurSuperRegion ? 0L : 1L << 62) | (long) armies << 31
+				| (Integer.MAX_VALUE - adjacencyIndex);
+	}
 
 	@Override
 	/**
@@ -388,68 +396,65 @@ public class BotStarter implements Bot {
 	 */
 	public ArrayList<AttackTransferMove> getAttackTransferMoves(BotState state,Long timeOut) {
 		
+		Profiler profiler = state.getProfiler();
+
 		//the first moves are the transfers in order to defend our edge regions
+		profiler.begin(Section.IDLE_TRANSFERS);
 		ArrayList<AttackTransferMove> attackTransferMoves = getIdleArmiesTransferMoves(state);
+		profiler.end(Section.IDLE_TRANSFERS);
 		//after the transfer the Bot executes the moves decides in the Extend part of the Deployment
 		attackTransferMoves.addAll(state.getAttackTransferMoves());
 
 		String myName = state.getMyPlayerName();
-		LinkedList<Region> edgeRegions = state.getMyEdgeTerritories();
+		ArrayList<Region> edgeRegions = state.getMyEdgeTerritories();
 		
 		//we sort the edge territories in ascending order of their priorities
 		state.sortTerritories(edgeRegions);
 		Collections.reverse(edgeRegions);
-		LinkedList<SuperRegion> superRegionsToConquer = state
-				.getSuperRegToConquer();
+		RegionSet superRegionsToConquer = state.getSuperRegToConquerIds();
 
+		Map map = state.getFullMap();
+		Adjacency adjacency = map.getAdjacency();
+
+		Deadline deadline = state.getTimeManager().getDeadline();
+
+		profiler.begin(Section.ATTACKS);
+		boolean first = true;
 		for (Region fromRegion : edgeRegions) {
-			//the regions we can attack from our current edgeRegion
-			ArrayList<Region> possibleToRegions = new ArrayList<Region>();
-			possibleToRegions.addAll(fromRegion.getNeighbors());
-			ArrayList<Region> enemiesInOurSuperRegion = new ArrayList<Region>();
-			ArrayList<Region> enemiesNotInOurSuperRegion = new ArrayList<Region>();
+			//the moves decided so far are all valid, so we stop when we run out of time,
+			//but not before the first region: with an empty timebank the budget is 0
+			if (!first && deadline.isExpired())
+				break;
+			first = false;
+
+			//the armies with which the neighbors we don't attack can attack our current edgeRegion
+			int enemyArmiesAround = fromRegion.getEnemyArmiesAround();
+			int fromId = fromRegion.getId();
+			targets.clear();
 			
 			//for every edgeRegion we look through its neighbors
-			for (int i = 0; i < possibleToRegions.size(); i++) {
-				Region toRegion = possibleToRegions.get(i);
+			for (int k = adjacency.begin(fromId); k < adjacency.end(fromId); k++) {
+				Region toRegion = map.getRegion(adjacency.target(k));
 				
 				//if the neighbor is not ours and we can capture it we will attack it
-				if (!toRegion.getPlayerName().equals(myName)
+				if (!toRegion.ownedBy(Owner.ME)
 						&& fromRegion.getArmies() > toRegion
 								.armiesNeededToCapture()) {
 
-					//the neighbors will be sorted by their numbers of armies
-					int priority = toRegion.getArmies();
-
-					toRegion.setPriority(priority);
-
 					//the neighbors are divided into two groups in order for the Bot to focus 
 					//first on conquering the superRegions we want and then on just expanding
-					if (superRegionsToConquer.contains(toRegion
-							.getSuperRegion()))
-						enemiesInOurSuperRegion.add(toRegion);
-					else
-						enemiesNotInOurSuperRegion.add(toRegion);
+					boolean inOurSuperRegion = superRegionsToConquer
+							.contains(toRegion.getSuperRegion().getId());
+					targets.add(toRegion.getId(), targetKey(inOurSuperRegion,
+							toRegion.getArmies(), k));
 				}
 
 			}
 
-			//both groups of neighbors are sorted in ascending order of their numbers of armies
-			//and added together in the same list
-			Collections.sort(enemiesInOurSuperRegion);
-			Collections.reverse(enemiesInOurSuperRegion);
-			Collections.sort(enemiesNotInOurSuperRegion);
-			Collections.reverse(enemiesNotInOurSuperRegion);
-			ArrayList<Region> enemyRegions = new ArrayList<Region>();
-
-			enemyRegions.addAll(enemiesInOurSuperRegion);
-			enemyRegions.addAll(enemiesNotInOurSuperRegion);
-
-	
 			//if there is just one neighbor we attack it with all we have got
-			if (enemyRegions.size() == 1) {
+			if (targets.size() == 1) {
 				attackTransferMoves.add(new AttackTransferMove(myName,
-						fromRegion, enemyRegions.get(0),
+						fromRegion, map.getRegion(targets.poll()),
 						fromRegion.getArmies() - 1));
 				continue;
 			}
@@ -457,30 +462,73 @@ public class BotStarter implements Bot {
 			
 			//otherwise we attack each neighbor with the exact number of armies that are needed to capture it
 			//then we remove it from our list and update the state of our armies
-			for (Region enemyRegion : enemyRegions) {
+			while (!targets.isEmpty()) {
 				int myArmies = fromRegion.getArmies()
-						- fromRegion.armiesNeededToDefend(possibleToRegions)
+						- Region.armiesToDefendAgainst(enemyArmiesAround)
 						- 1;
 
 				if (myArmies <= 0)
 					break;
+				Region enemyRegion = map.getRegion(targets.poll());
 				int armiesNeededToAttack = enemyRegion.armiesNeededToCapture();
 
 				if (myArmies >= armiesNeededToAttack) {
 					attackTransferMoves.add(new AttackTransferMove(myName,
 							fromRegion, enemyRegion, armiesNeededToAttack));
-					possibleToRegions.remove(enemyRegion);
+					if (enemyRegion.ownedBy(Owner.OPPONENT))
+						enemyArmiesAround -= enemyRegion.getArmies() - 1;
 					fromRegion.setArmies(fromRegion.getArmies()
 							- armiesNeededToAttack);
 				}
 			}
 		}
+		profiler.end(Section.ATTACKS);
 
 		return attackTransferMoves;
 	}
 
-	public static void main(String[] args) {
-		BotParser parser = new BotParser(new BotStarter());
+	/**
+	 * Starts the bot. Run with the argument "mcts" to plan with MctsBot instead
+	 * of the greedy strategy, and with a number to seed its random choices.
+	 * With "iterations=n" as well it searches n iterations a round instead of
+	 * until its deadline, so a game with the same seed can be replayed. With
+	 * "profile" the time spent in the parts of every turn is printed to
+	 * stderr when the game ends, with "profile=file" to that file.
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean mcts = false;
+		Long seed = null;
+		int iterations = 0;
+		PrintStream profile = null;
+		try {
+			for (String arg : args)
+				if (arg.equals("mcts"))
+					mcts = true;
+				else if (arg.equals("profile"))
+					profile = System.err;
+				else if (arg.startsWith("profile="))
+					profile = new PrintStream(new FileOutputStream(
+							arg.substring("profile=".length())), true);
+				else if (arg.startsWith("iterations="))
+					iterations = Integer.parseInt(arg.substring("iterations="
+							.length()));
+				else
+					seed = Long.parseLong(arg);
+		} catch (NumberFormatException e) {
+			System.err.println("usage: java bot.BotStarter [mcts] [seed] "
+					+ "[iterations=n] [profile | profile=file]");
+			return;
+		}
+
+		Bot bot;
+		if (mcts)
+			bot = iterations > 0 ? new MctsBot(seed == null ? System.nanoTime()
+					: seed, iterations) : seed == null ? new MctsBot()
+					: new MctsBot(seed);
+		else
+			bot = seed == null ? new BotStarter() : new BotStarter(seed);
+		BotParser parser = new BotParser(bot);
+		parser.setProfileOutput(profile);
 		parser.run();
 	}
 
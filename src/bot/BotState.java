@@ -11,12 +11,24 @@
 package bot;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
+import bot.Profiler.Section;
+import map.Adjacency;
+import map.FogBelief;
+import map.Frontier;
 import map.Map;
+import map.MapDelta;
+import map.MapListener;
+import map.MapState;
+import map.Owner;
+import map.Ranking;
 import map.Region;
+import map.RegionSet;
 import map.SuperRegion;
 import map.Territory;
 import move.AttackTransferMove;
@@ -28,16 +40,14 @@ public class BotState {
 	private String myName = "";
 	private String opponentName = "";
 
-	private static String staticMyName = "";
-	private static String staticOpponentName = "";
-
 	// This map is known from the start, contains all the regions and how they
-	// are connected, doesn't change after initialization
+	// are connected, doesn't change after initialization. The owners and
+	// armies of its regions are the ones given in the last update_map
 	private final Map fullMap = new Map();
 
 	// This map represents everything the player can see, updated at the end of
-	// each round.
-	private Map visibleMap;
+	// each round. It is a view on fullMap, so it shares its regions and state.
+	private final Map visibleMap = fullMap.createView();
 
 	// list of regions the player can choose the start from
 	private ArrayList<Region> pickableStartingRegions;
@@ -58,14 +68,57 @@ public class BotState {
 	// the amount of time that is added to the timebank per requested move
 	private long timePerMove;
 
-	// the queue of superRegions to be captured
+	// tells every planning phase how much of the timebank it may use
+	private final TimeManager timeManager = new TimeManager();
+
+	// measures the parts of a turn, if enabled
+	private final Profiler profiler = new Profiler();
+
+	// what we believe about the regions we can't see
+	private final FogBelief fogBelief = new FogBelief(fullMap);
+
+	// ranks the starting regions, built once the map is set up
+	private PickPlanner pickPlanner;
+
+	// orders the super regions to conquer, built once the map is set up
+	private ConquestPlanner conquestPlanner;
+
+	// splits the armies left after expanding between our edges
+	private final DeploymentOptimizer deploymentOptimizer = new DeploymentOptimizer(
+			fullMap);
+
+	// learns from the opponent's moves what he will do next
+	private final OpponentModel opponentModel;
+
+	// the queue of superRegions to be captured, and their ids
 	private LinkedList<SuperRegion> superRegToConquer;
+	private final RegionSet superRegToConquerIds = new RegionSet(0);
 
-	// the list of territories near enemies or neutral territories
-	private LinkedList<Region> myEdgeTerritories;
+	// the list of territories near enemies or neutral territories, refilled
+	// from the frontier every round
+	private final ArrayList<Region> myEdgeTerritories = new ArrayList<Region>();
 
 	// the list of territories surrounded by my territories
-	private LinkedList<Region> myInnerTerritories;
+	private final ArrayList<Region> myInnerTerritories = new ArrayList<Region>();
+
+	// buffers of sortTerritories
+	private final Ranking ranking = new Ranking(64);
+	private Territory[] sortBuffer = new Territory[0];
+	private int[] positions = new int[0];
+
+	// the owners and armies as the last update of the map gave them, and the
+	// regions it showed
+	private MapState received;
+	private final RegionSet visible = new RegionSet(0);
+	private final RegionSet nowVisible = new RegionSet(0);
+
+	// what the last update changed, and who wants to know
+	private final MapDelta delta = new MapDelta(0);
+	private final ArrayList<MapListener> mapListeners = new ArrayList<MapListener>();
+
+	// which of my territories are edges, kept up to date with every
+	// update_map; built the first time it is needed
+	private Frontier frontier;
 
 	// the list of attack/transfer moves
 	private ArrayList<AttackTransferMove> attackTransferMoves;
@@ -77,8 +130,11 @@ public class BotState {
 		opponentMoves = new ArrayList<Move>();
 		roundNumber = 0;
 		superRegToConquer = new LinkedList<SuperRegion>();
-		myInnerTerritories = new LinkedList<Region>();
 		attackTransferMoves = new ArrayList<AttackTransferMove>();
+
+		addMapListener(fogBelief);
+		opponentModel = new OpponentModel(fullMap, fogBelief);
+		fullMap.setAttackEstimate(opponentModel);
 	}
 
 	/**
@@ -97,188 +153,529 @@ public class BotState {
 		}
 		value = parts[2];
 
-		if (key.equals("your_bot")) { // bot's own name
-			myName = parts[2];
-			staticMyName = myName;
-		} else if (key.equals("opponent_bot")) { // opponent's name
-			opponentName = value;
-			staticOpponentName = opponentName;
-		} else if (key.equals("max_rounds"))
-			maxRounds = Integer.parseInt(value);
+		if (key.equals("your_bot")) // bot's own name
+			setMyPlayerName(value);
+		else if (key.equals("opponent_bot")) // opponent's name
+			setOpponentPlayerName(value);
+		else if (key.equals("max_rounds"))
+			setMaxRounds(Integer.parseInt(value));
 		else if (key.equals("timebank"))
-			totalTimebank = Long.parseLong(value);
+			setTimebank(Long.parseLong(value));
 		else if (key.equals("time_per_move"))
-			timePerMove = Long.parseLong(value);
-		else if (key.equals("starting_armies")) {
-			startingArmies = Integer.parseInt(value);
-			roundNumber++; // next round
-		}
+			setTimePerMove(Long.parseLong(value));
+		else if (key.equals("starting_armies"))
+			setStartingArmies(Integer.parseInt(value));
+	}
+
+	public void setMyPlayerName(String name) {
+		myName = name;
+		fullMap.setPlayerNames(myName, opponentName);
+	}
+
+	public void setOpponentPlayerName(String name) {
+		opponentName = name;
+		fullMap.setPlayerNames(myName, opponentName);
+	}
+
+	public void setMaxRounds(int maxRounds) {
+		this.maxRounds = maxRounds;
+		timeManager.setMaxRounds(maxRounds);
+	}
+
+	public void setTimebank(long timebank) {
+		totalTimebank = timebank;
+		timeManager.setTimebank(timebank);
+	}
+
+	public void setTimePerMove(long timePerMove) {
+		this.timePerMove = timePerMove;
+		timeManager.setTimePerMove(timePerMove);
+	}
+
+	// the starting armies are given at the beginning of every round
+	public void setStartingArmies(int startingArmies) {
+		this.startingArmies = startingArmies;
+		roundNumber++; // next round
 	}
 
 	// initial map is given to the bot with all the information except for
 	// player and armies info
 	public void setupMap(String[] mapInput) {
-		int i, regionId, superRegionId, wastelandId, reward;
+		int[] first = new int[mapInput.length];
+		int[] second = new int[mapInput.length];
+		int count = 0;
 
-		if (mapInput[1].equals("super_regions")) {
-			for (i = 2; i < mapInput.length; i++) {
-				try {
-					superRegionId = Integer.parseInt(mapInput[i]);
-					i++;
-					reward = Integer.parseInt(mapInput[i]);
-					fullMap.add(new SuperRegion(superRegionId, reward));
-				} catch (Exception e) {
-					System.err.println("Unable to parse SuperRegions");
-				}
-			}
-		} else if (mapInput[1].equals("regions")) {
-			for (i = 2; i < mapInput.length; i++) {
+		if (mapInput[1].equals("super_regions")
+				|| mapInput[1].equals("regions")) {
+			for (int i = 2; i + 1 < mapInput.length; i += 2) {
 				try {
-					regionId = Integer.parseInt(mapInput[i]);
-					i++;
-					superRegionId = Integer.parseInt(mapInput[i]);
-					SuperRegion superRegion = fullMap
-							.getSuperRegion(superRegionId);
-					fullMap.add(new Region(regionId, superRegion));
+					first[count] = Integer.parseInt(mapInput[i]);
+					second[count] = Integer.parseInt(mapInput[i + 1]);
+					count++;
 				} catch (Exception e) {
-					System.err.println("Unable to parse Regions "
+					System.err.println("Unable to parse " + mapInput[1] + " "
 							+ e.getMessage());
 				}
 			}
+			if (mapInput[1].equals("super_regions"))
+				setupSuperRegions(first, second, count);
+			else
+				setupRegions(first, second, count);
 		} else if (mapInput[1].equals("neighbors")) {
-			for (i = 2; i < mapInput.length; i++) {
+			for (int i = 2; i + 1 < mapInput.length; i += 2) {
 				try {
-					Region region = fullMap.getRegion(Integer
-							.parseInt(mapInput[i]));
-					i++;
-					String[] neighborIds = mapInput[i].split(",");
+					int regionId = Integer.parseInt(mapInput[i]);
+					String[] neighborIds = mapInput[i + 1].split(",");
+					if (count + neighborIds.length > first.length) {
+						first = Arrays.copyOf(first, 2 * (count + neighborIds.length));
+						second = Arrays.copyOf(second, first.length);
+					}
 					for (int j = 0; j < neighborIds.length; j++) {
-						Region neighbor = fullMap.getRegion(Integer
-								.parseInt(neighborIds[j]));
-						region.addNeighbor(neighbor);
+						second[count] = Integer.parseInt(neighborIds[j]);
+						first[count] = regionId;
+						count++;
 					}
 				} catch (Exception e) {
 					System.err.println("Unable to parse Neighbors "
 							+ e.getMessage());
 				}
 			}
+			setupNeighbors(first, second, count);
 		} else if (mapInput[1].equals("wastelands")) {
-			wastelands = new ArrayList<Region>();
-			for (i = 2; i < mapInput.length; i++) {
-				try {
-					wastelandId = Integer.parseInt(mapInput[i]);
-					wastelands.add(fullMap.getRegion(wastelandId));
-				} catch (Exception e) {
-					System.err.println("Unable to parse wastelands "
-							+ e.getMessage());
-				}
+			count = parseIds(mapInput, 2, first, "wastelands");
+			setupWastelands(first, count);
+		}
+	}
+
+	/**
+	 * Adds the SuperRegions given in setup_map super_regions.
+	 * 
+	 * @param superRegionIds
+	 * @param rewards
+	 * @param count
+	 *            the number of SuperRegions stored in the arrays
+	 */
+	public void setupSuperRegions(int[] superRegionIds, int[] rewards,
+			int count) {
+		pickPlanner = null;
+		conquestPlanner = null;
+		fullMap.ensureSuperRegionCapacity(maxId(superRegionIds, count));
+		for (int i = 0; i < count; i++)
+			fullMap.add(new SuperRegion(superRegionIds[i], rewards[i]));
+	}
+
+	/**
+	 * Adds the Regions given in setup_map regions.
+	 * 
+	 * @param regionIds
+	 * @param superRegionIds
+	 *            the SuperRegion of every Region
+	 * @param count
+	 *            the number of Regions stored in the arrays
+	 */
+	public void setupRegions(int[] regionIds, int[] superRegionIds, int count) {
+		pickPlanner = null;
+		conquestPlanner = null;
+		fullMap.ensureRegionCapacity(maxId(regionIds, count));
+		for (int i = 0; i < count; i++) {
+			SuperRegion superRegion = fullMap.getSuperRegion(superRegionIds[i]);
+			if (superRegion == null) {
+				System.err.println("Unable to parse Regions: no SuperRegion "
+						+ superRegionIds[i]);
+				continue;
 			}
+			fullMap.add(new Region(regionIds[i], superRegion));
 		}
 	}
 
-	// regions from wich a player is able to pick his preferred starting region
-	public void setPickableStartingRegions(String[] input) {
-		pickableStartingRegions = new ArrayList<Region>();
-		for (int i = 2; i < input.length; i++) {
-			int regionId;
+	/**
+	 * Connects the Regions given in setup_map neighbors.
+	 * 
+	 * @param regionIds
+	 * @param neighborIds
+	 *            the neighbor of every Region in regionIds
+	 * @param count
+	 *            the number of pairs stored in the arrays
+	 */
+	public void setupNeighbors(int[] regionIds, int[] neighborIds, int count) {
+		pickPlanner = null;
+		conquestPlanner = null;
+		for (int i = 0; i < count; i++) {
+			Region region = fullMap.getRegion(regionIds[i]);
+			Region neighbor = fullMap.getRegion(neighborIds[i]);
+			if (region == null || neighbor == null) {
+				System.err.println("Unable to parse Neighbors: no Region "
+						+ (region == null ? regionIds[i] : neighborIds[i]));
+				continue;
+			}
+			region.addNeighbor(neighbor);
+		}
+	}
+
+	/**
+	 * Stores the wastelands given in setup_map wastelands.
+	 * 
+	 * @param wastelandIds
+	 * @param count
+	 *            the number of ids stored in the array
+	 */
+	public void setupWastelands(int[] wastelandIds, int count) {
+		pickPlanner = null;
+		conquestPlanner = null;
+		wastelands = new ArrayList<Region>();
+		for (int i = 0; i < count; i++) {
+			Region wasteland = fullMap.getRegion(wastelandIds[i]);
+			if (wasteland == null)
+				System.err.println("Unable to parse wastelands: no Region "
+						+ wastelandIds[i]);
+			else
+				wastelands.add(wasteland);
+		}
+	}
+
+	// the biggest of the first count ids
+	private static int maxId(int[] ids, int count) {
+		int maxId = 0;
+		for (int i = 0; i < count; i++)
+			maxId = Math.max(maxId, ids[i]);
+		return maxId;
+	}
+
+	// parses the ids of a line starting from position from, reporting the
+	// ones that can't be parsed; returns the number of ids stored
+	private static int parseIds(String[] input, int from, int[] ids,
+			String what) {
+		int count = 0;
+		for (int i = from; i < input.length; i++) {
 			try {
-				regionId = Integer.parseInt(input[i]);
-				Region pickableRegion = fullMap.getRegion(regionId);
-				pickableStartingRegions.add(pickableRegion);
+				ids[count] = Integer.parseInt(input[i]);
+				count++;
 			} catch (Exception e) {
-				System.err.println("Unable to parse pickable regions "
+				System.err.println("Unable to parse " + what + " "
 						+ e.getMessage());
 			}
 		}
+		return count;
+	}
+
+	// regions from wich a player is able to pick his preferred starting region
+	public void setPickableStartingRegions(String[] input) {
+		int[] regionIds = new int[input.length];
+		int count = parseIds(input, 2, regionIds, "pickable regions");
+		setPickableStartingRegions(regionIds, count);
+	}
+
+	/**
+	 * @param regionIds
+	 *            the regions a player is able to pick his preferred starting
+	 *            region from
+	 * @param count
+	 *            the number of ids stored in the array
+	 */
+	public void setPickableStartingRegions(int[] regionIds, int count) {
+		// the map is complete now, and the pick request is timed
+		getPickPlanner();
+		pickableStartingRegions = new ArrayList<Region>();
+		for (int i = 0; i < count; i++) {
+			Region pickableRegion = fullMap.getRegion(regionIds[i]);
+			if (pickableRegion == null)
+				System.err.println("Unable to parse pickable regions: no Region "
+						+ regionIds[i]);
+			else
+				pickableStartingRegions.add(pickableRegion);
+		}
 	}
 
 	// visible regions are given to the bot with player and armies info
 	public void updateMap(String[] mapInput) {
-		visibleMap = fullMap.getMapCopy();
-		for (int i = 1; i < mapInput.length; i++) {
+		int size = mapInput.length / 3;
+		int[] regionIds = new int[size];
+		byte[] owners = new byte[size];
+		int[] armies = new int[size];
+		int count = 0;
+
+		for (int i = 1; i + 2 < mapInput.length; i += 3) {
 			try {
-				Region region = visibleMap.getRegion(Integer
-						.parseInt(mapInput[i]));
-				String playerName = mapInput[i + 1];
-				int armies = Integer.parseInt(mapInput[i + 2]);
-
-				region.setPlayerName(playerName);
-				region.setArmies(armies);
-				i += 2;
+				regionIds[count] = Integer.parseInt(mapInput[i]);
+				owners[count] = fullMap.getOwner(mapInput[i + 1]);
+				armies[count] = Integer.parseInt(mapInput[i + 2]);
+				count++;
 			} catch (Exception e) {
 				System.err.println("Unable to parse Map Update "
 						+ e.getMessage());
 			}
 		}
-		ArrayList<Region> unknownRegions = new ArrayList<Region>();
+		updateMap(regionIds, owners, armies, count);
+	}
+
+	/**
+	 * Overwrites the owners and armies with the ones of the visible regions.
+	 * 
+	 * @param regionIds
+	 * @param owners
+	 *            the Owner code of every region
+	 * @param armies
+	 *            the armies on every region
+	 * @param count
+	 *            the number of regions stored in the arrays
+	 */
+	public void updateMap(int[] regionIds, byte[] owners, int[] armies,
+			int count) {
+		profiler.begin(Section.UPDATE_MAP);
+		MapState state = fullMap.getState();
+		if (received == null || received.size() != state.size()) {
+			// nothing was received for this topology yet
+			received = state.copy();
+			received.clear();
+			visible.clear();
+		}
+
+		delta.clear();
+		nowVisible.clear();
+		for (int i = 0; i < count; i++) {
+			int id = regionIds[i];
+			if (fullMap.getRegion(id) == null) {
+				System.err.println("Unable to parse Map Update: no Region "
+						+ id);
+				continue;
+			}
+			nowVisible.add(id);
+			if (!visible.contains(id))
+				delta.show(id);
+			delta.change(id, received.getOwner(id), owners[i],
+					received.getArmies(id), armies[i]);
+			received.setOwner(id, owners[i]);
+			received.setArmies(id, armies[i]);
+		}
+
+		// the regions that aren't given any more are unknown again
+		for (int id = visible.first(); id >= 0; id = visible.next(id + 1))
+			if (!nowVisible.contains(id)) {
+				delta.hide(id);
+				delta.change(id, received.getOwner(id), Owner.UNKNOWN,
+						received.getArmies(id), 0);
+				received.setOwner(id, Owner.UNKNOWN);
+				received.setArmies(id, 0);
+			}
+		visible.copyFrom(nowVisible);
+
+		// also drops what was planned on the state in the last round
+		state.copyFrom(received);
+
+		// regions which are unknown are not visible; a visible Region that
+		// changed owner may have become unknown or known too
+		if (!delta.getShown().isEmpty() || !delta.getHidden().isEmpty()
+				|| !delta.getOwnerChanged().isEmpty()) {
+			visibleMap.clear();
+			for (int i = 0; i < count; i++) {
+				Region region = fullMap.getRegion(regionIds[i]);
+				if (region != null && owners[i] != Owner.UNKNOWN)
+					visibleMap.add(region);
+			}
+		}
 
-		// remove regions which are unknown.
-		for (Region region : visibleMap.regions)
-			if (region.getPlayerName().equals("unknown"))
-				unknownRegions.add(region);
-		for (Region unknownRegion : unknownRegions)
-			visibleMap.getRegions().remove(unknownRegion);
+		for (MapListener listener : mapListeners)
+			listener.mapChanged(delta);
+		profiler.end(Section.UPDATE_MAP);
 	}
 
 	// Parses a list of the opponent's moves every round.
 	// Clears it at the start, so only the moves of this round are stored.
 	public void readOpponentMoves(String[] moveInput) {
-		opponentMoves.clear();
+		int size = moveInput.length / 4;
+		byte[] owners = new byte[size];
+		int[] fromIds = new int[size];
+		int[] toIds = new int[size];
+		int[] armies = new int[size];
+		int count = 0;
+
 		for (int i = 1; i < moveInput.length; i++) {
 			try {
-				Move move;
 				if (moveInput[i + 1].equals("place_armies")) {
-					Region region = visibleMap.getRegion(Integer
-							.parseInt(moveInput[i + 2]));
-					String playerName = moveInput[i];
-					int armies = Integer.parseInt(moveInput[i + 3]);
-					move = new PlaceArmiesMove(playerName, region, armies);
+					fromIds[count] = Integer.parseInt(moveInput[i + 2]);
+					toIds[count] = -1;
+					armies[count] = Integer.parseInt(moveInput[i + 3]);
+					owners[count] = fullMap.getOwner(moveInput[i]);
+					count++;
 					i += 3;
 				} else if (moveInput[i + 1].equals("attack/transfer")) {
-					Region fromRegion = visibleMap.getRegion(Integer
-							.parseInt(moveInput[i + 2]));
-					if (fromRegion == null) // might happen if the region isn't
-											// visible
-						fromRegion = fullMap.getRegion(Integer
-								.parseInt(moveInput[i + 2]));
-
-					Region toRegion = visibleMap.getRegion(Integer
-							.parseInt(moveInput[i + 3]));
-					if (toRegion == null) // might happen if the region isn't
-											// visible
-						toRegion = fullMap.getRegion(Integer
-								.parseInt(moveInput[i + 3]));
-
-					String playerName = moveInput[i];
-					int armies = Integer.parseInt(moveInput[i + 4]);
-					move = new AttackTransferMove(playerName, fromRegion,
-							toRegion, armies);
+					fromIds[count] = Integer.parseInt(moveInput[i + 2]);
+					toIds[count] = Integer.parseInt(moveInput[i + 3]);
+					armies[count] = Integer.parseInt(moveInput[i + 4]);
+					owners[count] = fullMap.getOwner(moveInput[i]);
+					count++;
 					i += 4;
-				} else { // never happens
-					continue;
 				}
-				opponentMoves.add(move);
 			} catch (Exception e) {
 				System.err.println("Unable to parse Opponent moves "
 						+ e.getMessage());
 			}
 		}
+		readOpponentMoves(owners, fromIds, toIds, armies, count);
 	}
 
-	public String getMyPlayerName() {
-		return myName;
+	/**
+	 * Replaces the opponent's moves with the ones of this round.
+	 * 
+	 * @param owners
+	 *            the Owner code of the player of every move
+	 * @param fromIds
+	 *            the region armies are placed on or moved from
+	 * @param toIds
+	 *            the region armies are moved to, -1 for placements
+	 * @param armies
+	 * @param count
+	 *            the number of moves stored in the arrays
+	 */
+	public void readOpponentMoves(byte[] owners, int[] fromIds, int[] toIds,
+			int[] armies, int count) {
+		profiler.begin(Section.READ_OPPONENT_MOVES);
+		opponentMoves.clear();
+		for (int i = 0; i < count; i++) {
+			// regions which aren't visible are still in the full map
+			Region fromRegion = fullMap.getRegion(fromIds[i]);
+			Region toRegion = toIds[i] < 0 ? null : fullMap.getRegion(toIds[i]);
+			if (fromRegion == null || (toIds[i] >= 0 && toRegion == null)) {
+				System.err.println("Unable to parse Opponent moves: no Region "
+						+ (fromRegion == null ? fromIds[i] : toIds[i]));
+				continue;
+			}
+
+			String playerName = fullMap.getPlayerName(owners[i]);
+			if (toRegion == null)
+				opponentMoves.add(new PlaceArmiesMove(playerName, fromRegion,
+						armies[i]));
+			else
+				opponentMoves.add(new AttackTransferMove(playerName,
+						fromRegion, toRegion, armies[i]));
+		}
+		opponentModel.observe(owners, fromIds, toIds, armies, count);
+		profiler.end(Section.READ_OPPONENT_MOVES);
 	}
 
-	public String getOpponentPlayerName() {
-		return opponentName;
+	/**
+	 * Creates a BotState with the same map and settings as this one, for
+	 * planning on hypothetical states (see setMapState) without touching this
+	 * one.
+	 * 
+	 * @param asOpponent
+	 *            if true the new state plays the opponent's side: its own
+	 *            player is our opponent, so its map states have to be given
+	 *            with the players swapped (see MapState.swapPlayers)
+	 * @return The new BotState
+	 */
+	public BotState createSimulationState(boolean asOpponent) {
+		BotState simulation = new BotState();
+		simulation.myName = asOpponent ? opponentName : myName;
+		simulation.opponentName = asOpponent ? myName : opponentName;
+		simulation.fullMap.setPlayerNames(simulation.myName,
+				simulation.opponentName);
+		simulation.maxRounds = maxRounds;
+		simulation.roundNumber = roundNumber;
+		simulation.startingArmies = startingArmies;
+
+		int superRegionCount = fullMap.getSuperRegions().size();
+		int[] ids = new int[Math.max(superRegionCount, fullMap.getRegions()
+				.size())];
+		int[] values = new int[ids.length];
+		int count = 0;
+		for (SuperRegion superRegion : fullMap.getSuperRegions()) {
+			ids[count] = superRegion.getId();
+			values[count++] = superRegion.getArmiesReward();
+		}
+		simulation.setupSuperRegions(ids, values, count);
+
+		count = 0;
+		for (Region region : fullMap.getRegions()) {
+			ids[count] = region.getId();
+			values[count++] = region.getSuperRegion().getId();
+		}
+		simulation.setupRegions(ids, values, count);
+
+		Adjacency adjacency = fullMap.getAdjacency();
+		count = 0;
+		ids = new int[adjacency.begin(adjacency.size())];
+		values = new int[ids.length];
+		for (int id = 0; id < adjacency.size(); id++)
+			for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+				if (id < adjacency.target(k)) {
+					ids[count] = id;
+					values[count++] = adjacency.target(k);
+				}
+		simulation.setupNeighbors(ids, values, count);
+
+		if (wastelands != null) {
+			count = 0;
+			for (Region wasteland : wastelands)
+				ids[count++] = wasteland.getId();
+			simulation.setupWastelands(ids, count);
+		}
+
+		// our plans are made against what we learned about the opponent
+		if (!asOpponent) {
+			for (SuperRegion superRegion : superRegToConquer)
+				simulation.addSuperRegToConquer(simulation.fullMap
+						.getSuperRegion(superRegion.getId()));
+			simulation.fullMap.setAttackEstimate(opponentModel);
+		}
+		simulation.setMapState(fullMap.getState());
+		return simulation;
+	}
+
+	/**
+	 * Replaces the owners and armies of all regions with the given ones and
+	 * forgets what was planned for the previous state. Every region that
+	 * isn't unknown is visible.
+	 * 
+	 * @param mapState
+	 */
+	public void setMapState(MapState mapState) {
+		fullMap.getState().copyFrom(mapState);
+		visibleMap.clear();
+		for (Region region : fullMap.getRegions())
+			if (!region.ownedBy(Owner.UNKNOWN))
+				visibleMap.add(region);
+		myInnerTerritories.clear();
+		attackTransferMoves.clear();
+
+		// the next update is compared with this state
+		if (received != null) {
+			received.copyFrom(mapState);
+			visible.clear();
+			for (Region region : visibleMap.getRegions())
+				visible.add(region.getId());
+		}
+		for (MapListener listener : mapListeners)
+			listener.mapReplaced();
+	}
+
+	/**
+	 * Lets the listener know about every change of the owners and armies of
+	 * the map from now on.
+	 * 
+	 * @param listener
+	 */
+	public void addMapListener(MapListener listener) {
+		mapListeners.add(listener);
+	}
+
+	public void removeMapListener(MapListener listener) {
+		mapListeners.remove(listener);
+	}
+
+	/**
+	 * @return What the last update of the map changed
+	 */
+	public MapDelta getMapDelta() {
+		return delta;
 	}
 
-	public static String getMyPlayerNameStatic() {
-		return staticMyName;
+	public String getMyPlayerName() {
+		return myName;
 	}
 
-	public static String getOpponentPlayerNameStatic() {
-		return staticOpponentName;
+	public String getOpponentPlayerName() {
+		return opponentName;
 	}
 
 	public int getStartingArmies() {
@@ -289,6 +686,59 @@ public class BotState {
 		return roundNumber;
 	}
 
+	public int getMaxRounds() {
+		return maxRounds;
+	}
+
+	public long getTotalTimebank() {
+		return totalTimebank;
+	}
+
+	public long getTimePerMove() {
+		return timePerMove;
+	}
+
+	public TimeManager getTimeManager() {
+		return timeManager;
+	}
+
+	public Profiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * @return Which starting regions we want most, ranked the first time
+	 *         after the map was set up
+	 */
+	public PickPlanner getPickPlanner() {
+		if (pickPlanner == null)
+			pickPlanner = new PickPlanner(fullMap, wastelands);
+		return pickPlanner;
+	}
+
+	/**
+	 * @return What orders the super regions we want to conquer, built the
+	 *         first time after the map was set up
+	 */
+	public ConquestPlanner getConquestPlanner() {
+		if (conquestPlanner == null)
+			conquestPlanner = new ConquestPlanner(fullMap, fogBelief,
+					wastelands);
+		return conquestPlanner;
+	}
+
+	public DeploymentOptimizer getDeploymentOptimizer() {
+		return deploymentOptimizer;
+	}
+
+	public OpponentModel getOpponentModel() {
+		return opponentModel;
+	}
+
+	public FogBelief getFogBelief() {
+		return fogBelief;
+	}
+
 	public Map getVisibleMap() {
 		return visibleMap;
 	}
@@ -309,15 +759,59 @@ public class BotState {
 		return wastelands;
 	}
 
+	/**
+	 * @return The SuperRegions we want to conquer; it may be reordered, but
+	 *         SuperRegions are added and removed with addSuperRegToConquer and
+	 *         removeOwnedSuperRegToConquer, so their ids stay in step
+	 */
 	public LinkedList<SuperRegion> getSuperRegToConquer() {
 		return superRegToConquer;
 	}
 
-	public LinkedList<Region> getMyEdgeTerritories() {
+	/**
+	 * Adds a SuperRegion to the ones we want to conquer.
+	 * 
+	 * @param superRegion
+	 * @return True if we didn't want it yet
+	 */
+	public boolean addSuperRegToConquer(SuperRegion superRegion) {
+		if (!superRegToConquerIds.add(superRegion.getId()))
+			return false;
+		superRegToConquer.add(superRegion);
+		return true;
+	}
+
+	/**
+	 * Removes the SuperRegions we own by now from the ones we want to conquer.
+	 */
+	public void removeOwnedSuperRegToConquer() {
+		for (Iterator<SuperRegion> it = superRegToConquer.iterator(); it
+				.hasNext();) {
+			SuperRegion superRegion = fullMap.getSuperRegion(it.next().getId());
+			if (superRegion.ownedBy(Owner.ME)) {
+				it.remove();
+				superRegToConquerIds.remove(superRegion.getId());
+			}
+		}
+	}
+
+	/**
+	 * @return The ids of the SuperRegions in superRegToConquer, for looking
+	 *         them up in constant time
+	 */
+	public RegionSet getSuperRegToConquerIds() {
+		return superRegToConquerIds;
+	}
+
+	/**
+	 * @return The edges among my territories as of the last
+	 *         detMyEdgeTerritories; the list is refilled by the next one
+	 */
+	public ArrayList<Region> getMyEdgeTerritories() {
 		return myEdgeTerritories;
 	}
 
-	public LinkedList<Region> getMyInnerTerritories() {
+	public ArrayList<Region> getMyInnerTerritories() {
 		return myInnerTerritories;
 	}
 
@@ -353,28 +847,45 @@ public class BotState {
 	 * @return
 	 */
 	public boolean areAllNeighborsAllies(Region region) {
-		LinkedList<Region> neighbors = region.getNeighbors();
-		for (Region neighbor : neighbors)
-			if (!neighbor.ownedByPlayer(myName))
+		Adjacency adjacency = fullMap.getAdjacency();
+		MapState mapState = fullMap.getState();
+		int id = region.getId();
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+			if (mapState.getOwner(adjacency.target(k)) != Owner.ME)
 				return false;
 		return true;
 	}
 
+	/**
+	 * @return Which of my territories are edges and which are inner ones
+	 */
+	public Frontier getFrontier() {
+		if (frontier == null
+				|| frontier.getAdjacency() != fullMap.getAdjacency()) {
+			if (frontier != null)
+				removeMapListener(frontier);
+			frontier = new Frontier(fullMap, Owner.ME);
+			addMapListener(frontier);
+		}
+		return frontier;
+	}
+
 	/**
 	 * Separates my territories into 2 lists : myInnerTerritories and
-	 * myEdgeTerritories.
+	 * myEdgeTerritories, both in ascending order of their ids.
 	 */
 	public void detMyEdgeTerritories() {
-		myEdgeTerritories = new LinkedList<Region>();
-
-		LinkedList<Region> regions = visibleMap.getRegions();
+		profiler.begin(Section.EDGE_TERRITORIES);
+		Frontier frontier = getFrontier();
+		toRegions(frontier.getEdges(), myEdgeTerritories);
+		toRegions(frontier.getInner(), myInnerTerritories);
+		profiler.end(Section.EDGE_TERRITORIES);
+	}
 
-		for (Region region : regions)
-			if (region.ownedByPlayer(myName))
-				if (!areAllNeighborsAllies(region))
-					myEdgeTerritories.add(region);
-				else
-					myInnerTerritories.add(region);
+	private void toRegions(RegionSet ids, ArrayList<Region> regions) {
+		regions.clear();
+		for (int id = ids.first(); id >= 0; id = ids.next(id + 1))
+			regions.add(fullMap.getRegion(id));
 	}
 
 	/**
@@ -382,10 +893,34 @@ public class BotState {
 	 * 
 	 * @param territories
 	 */
-	public void sortTerritories(List<? extends Territory> territories) {
-		for (Territory territory : territories)
+	public <T extends Territory> void sortTerritories(List<T> territories) {
+		int count = territories.size();
+		if (sortBuffer.length < count) {
+			sortBuffer = new Territory[count];
+			positions = new int[count];
+		}
+
+		// the territories are ranked by their positions, so equal ones keep
+		// their order
+		int position = 0;
+		for (T territory : territories) {
 			territory.computePriority();
-		Collections.sort(territories);
+			ranking.setKey(position, territory.getPriority(),
+					territory.getTieBreak());
+			sortBuffer[position] = territory;
+			positions[position] = position;
+			position++;
+		}
+		ranking.sort(positions, count);
+
+		ListIterator<T> it = territories.listIterator();
+		for (int i = 0; i < count; i++) {
+			it.next();
+			@SuppressWarnings("unchecked")
+			T territory = (T) sortBuffer[positions[i]];
+			it.set(territory);
+		}
+		Arrays.fill(sortBuffer, 0, count, null);
 	}
 
 }
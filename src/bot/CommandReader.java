@@ -0,0 +1,206 @@
+package bot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * @author PandaCoders Reads the engine's commands straight from the input
+ *         bytes. Tokens are separated by blanks or commas and kept in a
+ *         reusable buffer, numbers are parsed from it directly, so reading a
+ *         command creates no Strings unless asked for one.
+ */
+public class CommandReader {
+
+	private static final int EOF = -1;
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	private final InputStream in;
+	private final byte[] buffer = new byte[1 << 16];
+	private int position;
+	private int limit;
+
+	// the last token read
+	private byte[] token = new byte[64];
+	private int tokenLength;
+
+	// the character that ended the last token
+	private int separator;
+	// true when there are no more tokens on the current line
+	private boolean endOfLine = true;
+
+	public CommandReader(InputStream in) {
+		this.in = in;
+	}
+
+	private int read() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		return buffer[position++];
+	}
+
+	private int peek() throws IOException {
+		int c = read();
+		if (c != EOF)
+			position--;
+		return c;
+	}
+
+	private static boolean isBlank(int c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+
+	/**
+	 * Skips whatever is left of the current line and any empty lines after
+	 * it.
+	 *
+	 * @return True if there is a new line to read, false at the end of the
+	 *         input
+	 * @throws IOException
+	 */
+	public boolean nextLine() throws IOException {
+		int c;
+		if (!endOfLine)
+			do
+				c = read();
+			while (c != '\n' && c != EOF);
+
+		c = peek();
+		while (isBlank(c) || c == '\n') {
+			read();
+			c = peek();
+		}
+		endOfLine = c == EOF;
+		return !endOfLine;
+	}
+
+	/**
+	 * @return True if the current line has more tokens
+	 */
+	public boolean hasMoreTokens() {
+		return !endOfLine;
+	}
+
+	/**
+	 * Reads the next token of the current line into the token buffer.
+	 *
+	 * @return False if the line has no more tokens
+	 * @throws IOException
+	 */
+	public boolean nextToken() throws IOException {
+		tokenLength = 0;
+		if (endOfLine)
+			return false;
+
+		int c = read();
+		while (isBlank(c))
+			c = read();
+		while (c != EOF && c != '\n' && c != ',' && !isBlank(c)) {
+			if (tokenLength == token.length) {
+				byte[] bigger = new byte[2 * token.length];
+				System.arraycopy(token, 0, bigger, 0, tokenLength);
+				token = bigger;
+			}
+			token[tokenLength++] = (byte) c;
+			c = read();
+		}
+		separator = c;
+
+		// blanks at the end of the line don't start another token
+		if (isBlank(c)) {
+			c = peek();
+			while (isBlank(c)) {
+				read();
+				c = peek();
+			}
+			if (c == '\n')
+				read();
+		}
+		if (c == '\n' || c == EOF)
+			endOfLine = true;
+		return tokenLength > 0;
+	}
+
+	/**
+	 * @return True if the last token was followed by a comma, i.e. it is part
+	 *         of a list like the neighbors of a region
+	 */
+	public boolean followedByComma() {
+		return separator == ',';
+	}
+
+	/**
+	 * @param word
+	 *            an ASCII string
+	 * @return True if the last token is the given word
+	 */
+	public boolean tokenEquals(String word) {
+		if (word.length() != tokenLength)
+			return false;
+		for (int i = 0; i < tokenLength; i++)
+			if (token[i] != word.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return The last token as a new String
+	 */
+	public String tokenAsString() {
+		return new String(token, 0, tokenLength, ASCII);
+	}
+
+	/**
+	 * @return The last token as a number
+	 * @throws NumberFormatException
+	 *             if the token is not a number
+	 */
+	public long tokenAsLong() {
+		if (tokenLength == 0)
+			throw new NumberFormatException("Missing number");
+		boolean negative = token[0] == '-';
+		int i = negative ? 1 : 0;
+		if (i == tokenLength)
+			throw new NumberFormatException("For input string: \"-\"");
+		long value = 0;
+		for (; i < tokenLength; i++) {
+			int digit = token[i] - '0';
+			if (digit < 0 || digit > 9)
+				throw new NumberFormatException("For input string: \""
+						+ tokenAsString() + "\"");
+			value = 10 * value + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Reads the next token as a number.
+	 *
+	 * @throws NumberFormatException
+	 *             if the token is missing or is not a number
+	 * @throws IOException
+	 */
+	public int readInt() throws IOException {
+		nextToken();
+		return (int) tokenAsLong();
+	}
+
+	/**
+	 * Reads the next token as a number.
+	 *
+	 * @throws NumberFormatException
+	 *             if the token is missing or is not a number
+	 * @throws IOException
+	 */
+	public long readLong() throws IOException {
+		nextToken();
+		return tokenAsLong();
+	}
+
+}
@@ -0,0 +1,246 @@
+package bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import map.Adjacency;
+import map.Combat;
+import map.FogBelief;
+import map.IdQueue;
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Ranking;
+import map.Region;
+import map.SuperRegion;
+
+/**
+ * @author PandaCoders Decides which of the SuperRegions we want to conquer
+ *         the armies should go to first.
+ * 
+ *         Capturing a Region costs the armies needed to capture it, and the
+ *         cheapest way to every Region from the Regions we own is found with
+ *         one Dijkstra search. A SuperRegion costs the capture of all its
+ *         foreign Regions plus the way to the nearest of them, and takes as
+ *         many rounds as its farthest Region is steps away. Within the next
+ *         PLAN_ROUNDS rounds we can place that many times our income; the
+ *         SuperRegions that bring the most reward for that budget are chosen
+ *         by a knapsack over their costs, and funded before the others, in
+ *         the order of their reward per army.
+ */
+public class ConquestPlanner {
+
+	// the rounds ahead the armies are planned for
+	private static final int PLAN_ROUNDS = 3;
+
+	// a cost or number of rounds that can't be reached
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final Map map;
+	private final FogBelief belief;
+	private final boolean[] isWasteland;
+
+	// the armies needed to reach and capture every Region, and the steps
+	// it is away from our Regions that way
+	private final int[] cost;
+	private final int[] steps;
+	private final IdQueue queue;
+
+	// the cost and rounds of every SuperRegion, by id
+	private int[] superRegionCost = new int[0];
+	private int[] superRegionRounds = new int[0];
+
+	/**
+	 * @param map
+	 *            the map, completely set up
+	 * @param belief
+	 *            what we believe about the Regions we can't see
+	 * @param wastelands
+	 *            the wastelands of the map, null if there are none
+	 */
+	public ConquestPlanner(Map map, FogBelief belief, List<Region> wastelands) {
+		this.map = map;
+		this.belief = belief;
+		int size = map.getAdjacency().size();
+		isWasteland = new boolean[size];
+		if (wastelands != null)
+			for (Region wasteland : wastelands)
+				isWasteland[wasteland.getId()] = true;
+		cost = new int[size];
+		steps = new int[size];
+		queue = new IdQueue(size);
+	}
+
+	/**
+	 * Computes the cost and rounds of the candidates and orders them.
+	 * 
+	 * @param candidates
+	 *            the SuperRegions we want to conquer, in the order to keep
+	 *            among equals
+	 * @param income
+	 *            the armies we get per round
+	 * @return The candidates in the order to fund them
+	 */
+	public List<SuperRegion> plan(List<SuperRegion> candidates, int income) {
+		search();
+
+		int count = candidates.size();
+		SuperRegion[] items = candidates.toArray(new SuperRegion[count]);
+		int[] weights = new int[count];
+		int[] values = new int[count];
+		for (int i = 0; i < count; i++) {
+			SuperRegion superRegion = items[i];
+			measure(superRegion);
+			weights[i] = superRegionCost[superRegion.getId()];
+			// the reward is earned from the round after the conquest on
+			int rounds = superRegionRounds[superRegion.getId()];
+			values[i] = rounds == UNREACHABLE ? 0 : superRegion
+					.getArmiesReward() * Math.max(1, PLAN_ROUNDS + 1 - rounds);
+		}
+		boolean[] chosen = knapsack(weights, values, income * PLAN_ROUNDS);
+
+		// the chosen ones first, each group by reward per army and then in
+		// the order of the candidates
+		Ranking ranking = new Ranking(count);
+		int[] order = new int[count];
+		int chosenCount = 0;
+		for (int i = 0; i < count; i++) {
+			ranking.setKey(i, weights[i] == UNREACHABLE ? 0 : (float) values[i]
+					/ Math.max(1, weights[i]));
+			if (chosen[i])
+				order[chosenCount++] = i;
+		}
+		ranking.sort(order, chosenCount);
+		int[] rest = new int[count - chosenCount];
+		for (int i = 0, j = 0; i < count; i++)
+			if (!chosen[i])
+				rest[j++] = i;
+		ranking.sort(rest, rest.length);
+
+		List<SuperRegion> plan = new ArrayList<SuperRegion>(count);
+		for (int i = 0; i < chosenCount; i++)
+			plan.add(items[order[i]]);
+		for (int i : rest)
+			plan.add(items[i]);
+		return plan;
+	}
+
+	/**
+	 * @return The armies needed to conquer the SuperRegion, as of the last
+	 *         plan it was a candidate of
+	 */
+	public int getCost(int superRegionId) {
+		return superRegionCost[superRegionId];
+	}
+
+	/**
+	 * @return The rounds needed to conquer the SuperRegion, as of the last
+	 *         plan it was a candidate of
+	 */
+	public int getRounds(int superRegionId) {
+		return superRegionRounds[superRegionId];
+	}
+
+	// the cheapest way from our Regions to every other Region
+	private void search() {
+		MapState state = map.getState();
+		Adjacency adjacency = map.getAdjacency();
+		Arrays.fill(cost, UNREACHABLE);
+		queue.clear();
+		for (int id = 0; id < cost.length; id++)
+			if (state.getOwner(id) == Owner.ME) {
+				cost[id] = 0;
+				steps[id] = 0;
+				queue.add(id, 0);
+			}
+
+		while (!queue.isEmpty()) {
+			long key = queue.peekKey();
+			int id = queue.poll();
+			if (key != cost[id])
+				continue;
+			for (int k = adjacency.begin(id); k < adjacency.end(id); k++) {
+				int next = adjacency.target(k);
+				if (state.getOwner(next) == Owner.ME)
+					continue;
+				int nextCost = cost[id] + captureCost(next);
+				if (nextCost < cost[next]
+						|| (nextCost == cost[next] && steps[id] + 1 < steps[next])) {
+					cost[next] = nextCost;
+					steps[next] = steps[id] + 1;
+					queue.add(next, nextCost);
+				}
+			}
+		}
+	}
+
+	// the cost and rounds of a SuperRegion from the last search
+	private void measure(SuperRegion superRegion) {
+		int id = superRegion.getId();
+		if (id >= superRegionCost.length) {
+			superRegionCost = Arrays.copyOf(superRegionCost, id + 1);
+			superRegionRounds = Arrays.copyOf(superRegionRounds, id + 1);
+		}
+
+		int captures = 0, approach = 0, rounds = 0;
+		boolean foreign = false, reachable = true;
+		for (Region region : superRegion.getSubRegions()) {
+			int regionId = region.getId();
+			if (map.getState().getOwner(regionId) == Owner.ME)
+				continue;
+			if (cost[regionId] == UNREACHABLE) {
+				reachable = false;
+				break;
+			}
+			int capture = captureCost(regionId);
+			captures += capture;
+			approach = foreign ? Math.min(approach, cost[regionId] - capture)
+					: cost[regionId] - capture;
+			foreign = true;
+			rounds = Math.max(rounds, steps[regionId]);
+		}
+		superRegionCost[id] = reachable ? captures + approach : UNREACHABLE;
+		superRegionRounds[id] = reachable ? rounds : UNREACHABLE;
+	}
+
+	// the armies needed to capture the Region as we believe it is
+	private int captureCost(int id) {
+		int armies;
+		if (belief.getRoundsHidden(id) < 0)
+			armies = isWasteland[id] ? PickPlanner.WASTELAND_ARMIES
+					: PickPlanner.NEUTRAL_ARMIES;
+		else
+			armies = Math.round(belief.getArmies(id));
+		return Math.max(1, Combat.armiesNeededToCapture(armies));
+	}
+
+	/**
+	 * @return Which items to take for the most value within the budget
+	 */
+	private static boolean[] knapsack(int[] weights, int[] values, int budget) {
+		int count = weights.length;
+		budget = Math.max(0, budget);
+		int[] best = new int[budget + 1];
+		boolean[][] taken = new boolean[count][budget + 1];
+		for (int i = 0; i < count; i++) {
+			int weight = weights[i];
+			if (weight > budget || values[i] <= 0)
+				continue;
+			for (int b = budget; b >= weight; b--)
+				if (best[b - weight] + values[i] > best[b]) {
+					best[b] = best[b - weight] + values[i];
+					taken[i][b] = true;
+				}
+		}
+
+		boolean[] chosen = new boolean[count];
+		for (int i = count - 1, b = budget; i >= 0; i--)
+			if (taken[i][b]) {
+				chosen[i] = true;
+				b -= weights[i];
+			}
+		return chosen;
+	}
+
+}
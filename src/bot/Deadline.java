@@ -0,0 +1,79 @@
+package bot;
+
+/**
+ * @author PandaCoders A point in time a planning phase has to be done by.
+ *         Checking it only reads the clock, so searches can check it often and
+ *         return the best answer they have when it expires.
+ */
+public class Deadline {
+
+	private final long startNanos;
+	private final long endNanos;
+
+	/**
+	 * @param millis
+	 *            the time, from now on, until the deadline
+	 */
+	public Deadline(long millis) {
+		this(System.nanoTime(), millis * 1000000L);
+	}
+
+	private Deadline(long startNanos, long budgetNanos) {
+		this.startNanos = startNanos;
+		this.endNanos = startNanos + Math.max(0, budgetNanos);
+	}
+
+	/**
+	 * @return A deadline that never expires
+	 */
+	public static Deadline none() {
+		return new Deadline(System.nanoTime(), Long.MAX_VALUE / 4);
+	}
+
+	/**
+	 * @return True if the deadline has passed
+	 */
+	public boolean isExpired() {
+		return System.nanoTime() - endNanos >= 0;
+	}
+
+	/**
+	 * @return The time left until the deadline, in milliseconds
+	 */
+	public long remainingMillis() {
+		return Math.max(0, (endNanos - System.nanoTime()) / 1000000L);
+	}
+
+	/**
+	 * @return The time since the deadline was set, in milliseconds
+	 */
+	public long elapsedMillis() {
+		return (System.nanoTime() - startNanos) / 1000000L;
+	}
+
+	/**
+	 * @param fraction
+	 *            the part of the remaining time to give away, between 0 and 1
+	 * @return A deadline for a part of the work that starts now and gets the
+	 *         given part of the remaining time; it never ends after this one
+	 */
+	public Deadline split(double fraction) {
+		long now = System.nanoTime();
+		long remaining = Math.max(0, endNanos - now);
+		return new Deadline(now, (long) (remaining * fraction));
+	}
+
+	/**
+	 * Improves the result of an anytime search until it is done or the
+	 * deadline passes.
+	 * 
+	 * @param search
+	 * @return The best result the search found
+	 */
+	public <T> T run(AnytimeSearch<T> search) {
+		while (!isExpired() && search.improve())
+			;
+		return search.getBest();
+	}
+
+}
@@ -0,0 +1,266 @@
+package bot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import map.Adjacency;
+import map.IdQueue;
+import map.Map;
+import map.Owner;
+import map.Region;
+import map.RegionSet;
+
+/**
+ * @author PandaCoders Splits the armies left after defending and expanding
+ *         between our edge Regions, for the most value.
+ *
+ *         What a Region is worth with k more armies is the worth of the
+ *         neighbors the attacks would then capture, taken the way
+ *         getAttackTransferMoves takes them, plus its own worth if k is
+ *         enough to hold it against the attack its neighbors are expected to
+ *         make. The allocation is found exactly with a dynamic program over
+ *         the Regions and the armies when that table is small enough, and
+ *         otherwise by giving the armies in the steps that gain the most per
+ *         army. The Regions we wanted to capture but couldn't afford are
+ *         worth the most. The armies that add no value go where adding them
+ *         all gains the most, or else to the Region in the most danger.
+ *
+ *         The armies of the attacks planned so far this round are already
+ *         taken off the Regions they start from, so a Region's armies are
+ *         the ones it has left.
+ */
+public class DeploymentOptimizer {
+
+	// the biggest Regions x armies x armies the exact program is run for
+	private static final int EXACT_LIMIT = 1 << 18;
+
+	// the worth of capturing a neutral Region, an opponent's Region, and of
+	// holding one of our Regions; a Region in a SuperRegion we want, or
+	// holding one in a SuperRegion we own, is worth more
+	private static final int NEUTRAL_WORTH = 1;
+	private static final int OPPONENT_WORTH = 2;
+	private static final int DEFENSE_WORTH = 2;
+	// what capturing a Region we wanted but couldn't afford is worth more
+	private static final int UNFUNDED_WORTH = 2;
+
+	private final Map map;
+
+	// the best step of every Region, reused by the greedy allocation
+	private final IdQueue steps = new IdQueue(16);
+
+	public DeploymentOptimizer(Map map) {
+		this.map = map;
+	}
+
+	/**
+	 * @param regions
+	 *            our edge Regions
+	 * @param armies
+	 *            the armies to place
+	 * @param wanted
+	 *            the ids of the SuperRegions we want to conquer
+	 * @param funded
+	 *            the ids of the Regions the planned attacks capture
+	 * @param unfunded
+	 *            the ids of the Regions we wanted to capture but couldn't
+	 *            afford
+	 * @return The armies to place on each of the Regions, in their order
+	 */
+	public int[] allocate(List<Region> regions, int armies, RegionSet wanted,
+			RegionSet funded, RegionSet unfunded) {
+		int count = regions.size();
+		int[][] values = new int[count][];
+		int i = 0;
+		for (Region region : regions)
+			values[i++] = values(region, armies, wanted, funded,
+					unfunded);
+
+		int[] allocation = (long) count * (armies + 1) * (armies + 1) <= EXACT_LIMIT
+				? solveExactly(values, armies) : solveGreedily(values, armies);
+		int left = armies;
+		for (int amount : allocation)
+			left -= amount;
+		if (count > 0 && left > 0)
+			allocation[leftoverRegion(regions, values, allocation, left)] += left;
+		return allocation;
+	}
+
+	/**
+	 * @return The index of the Region adding the left armies to gains the
+	 *         most, of those the one in the most danger
+	 */
+	private static int leftoverRegion(List<Region> regions, int[][] values,
+			int[] allocation, int left) {
+		int best = 0, bestGain = -1, bestDanger = 0;
+		int i = 0;
+		for (Region region : regions) {
+			int gain = values[i][allocation[i] + left]
+					- values[i][allocation[i]];
+			int danger = region.getEnemyArmiesAround() - region.getArmies()
+					- allocation[i];
+			if (gain > bestGain || gain == bestGain && danger > bestDanger) {
+				best = i;
+				bestGain = gain;
+				bestDanger = danger;
+			}
+			i++;
+		}
+		return best;
+	}
+
+	/**
+	 * @return The worth of the Region with 0 to armies more armies
+	 */
+	private int[] values(Region region, int armies, RegionSet wanted,
+			RegionSet funded, RegionSet unfunded) {
+		int[] values = new int[armies + 1];
+		if (!region.ownedBy(Owner.ME))
+			return values;
+		int id = region.getId();
+		int own = region.getArmies();
+
+		// holding the Region
+		int needed = region.armiesNeededToDefend();
+		if (needed > 0 && needed <= armies) {
+			int worth = DEFENSE_WORTH;
+			if (region.getSuperRegion().ownedBy(Owner.ME))
+				worth += region.getSuperRegion().getArmiesReward();
+			for (int k = needed; k <= armies; k++)
+				values[k] += worth;
+		}
+
+		// the neighbors the attacks capture, in the order they are attacked:
+		// the ones in the SuperRegions we want first, each group by armies
+		Adjacency adjacency = map.getAdjacency();
+		List<Region> targets = new ArrayList<Region>();
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++) {
+			Region neighbor = map.getRegion(adjacency.target(k));
+			if (neighbor.ownedBy(Owner.ME) || funded.contains(neighbor.getId()))
+				continue;
+			int at = targets.size();
+			while (at > 0 && isAttackedBefore(neighbor, targets.get(at - 1), wanted))
+				at--;
+			targets.add(at, neighbor);
+		}
+		if (targets.isEmpty())
+			return values;
+
+		// with one target all the armies attack it, otherwise enough stay to
+		// hold against every enemy army around
+		int reserve = targets.size() == 1 ? 0 : Region
+				.armiesToDefendAgainst(region.getEnemyArmiesAround());
+		for (int k = 0; k <= armies; k++) {
+			int spare = own + k - 1 - reserve;
+			int worth = 0;
+			for (Region target : targets) {
+				int cost = target.armiesNeededToCapture();
+				if (cost > spare)
+					continue;
+				spare -= cost;
+				worth += target.ownedBy(Owner.OPPONENT) ? OPPONENT_WORTH
+						: NEUTRAL_WORTH;
+				if (wanted.contains(target.getSuperRegion().getId()))
+					worth++;
+				if (unfunded.contains(target.getId()))
+					worth += UNFUNDED_WORTH;
+			}
+			values[k] += worth;
+		}
+		return values;
+	}
+
+	private static boolean isAttackedBefore(Region region, Region other,
+			RegionSet wanted) {
+		boolean inWanted = wanted.contains(region.getSuperRegion().getId());
+		boolean otherInWanted = wanted.contains(other.getSuperRegion().getId());
+		if (inWanted != otherInWanted)
+			return inWanted;
+		return region.getArmies() < other.getArmies();
+	}
+
+	/**
+	 * The best allocation of at most armies armies, using the fewest armies
+	 * of the best ones and of those giving the earlier Regions the fewest.
+	 */
+	static int[] solveExactly(int[][] values, int armies) {
+		int count = values.length;
+		// best[a] is the most the Regions so far are worth with a armies
+		int[] best = new int[armies + 1];
+		int[] next = new int[armies + 1];
+		int[][] choice = new int[count][armies + 1];
+		for (int i = count - 1; i >= 0; i--) {
+			int[] value = values[i];
+			for (int a = 0; a <= armies; a++) {
+				int most = -1;
+				for (int k = 0; k <= a; k++) {
+					int worth = value[k] + best[a - k];
+					if (worth > most) {
+						most = worth;
+						choice[i][a] = k;
+					}
+				}
+				next[a] = most;
+			}
+			int[] swap = best;
+			best = next;
+			next = swap;
+		}
+
+		int used = 0;
+		for (int a = 1; a <= armies; a++)
+			if (best[a] > best[used])
+				used = a;
+		int[] allocation = new int[count];
+		for (int i = 0; i < count; i++) {
+			allocation[i] = choice[i][used];
+			used -= allocation[i];
+		}
+		return allocation;
+	}
+
+	/**
+	 * Gives the armies in the steps that gain the most per army, a Region
+	 * with fewer armies than its best step needs being looked at again with
+	 * the armies that are left.
+	 */
+	int[] solveGreedily(int[][] values, int armies) {
+		int count = values.length;
+		int[] allocation = new int[count];
+		int[] step = new int[count];
+		steps.clear();
+		for (int i = 0; i < count; i++)
+			addStep(values[i], i, 0, armies, step);
+
+		int left = armies;
+		while (left > 0 && !steps.isEmpty()) {
+			int i = steps.poll();
+			if (step[i] > left) {
+				addStep(values[i], i, allocation[i], left, step);
+				continue;
+			}
+			allocation[i] += step[i];
+			left -= step[i];
+			addStep(values[i], i, allocation[i], left, step);
+		}
+		return allocation;
+	}
+
+	// queues the step of at most left armies that gains the Region the most
+	// per army, if one gains anything
+	private void addStep(int[] value, int i, int from,
+			int left, int[] step) {
+		float most = 0;
+		int to = Math.min(value.length - 1, from + left);
+		for (int k = from + 1; k <= to; k++) {
+			float gain = (float) (value[k] - value[from]) / (k - from);
+			if (gain > most) {
+				most = gain;
+				step[i] = k - from;
+			}
+		}
+		if (most > 0)
+			steps.add(i, (long) (Integer.MAX_VALUE - Float
+					.floatToIntBits(most)) << 32 | i);
+	}
+
+}
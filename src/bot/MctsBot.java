@@ -0,0 +1,401 @@
+package bot;
+
+import java.util.ArrayList;
+
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+import sim.MaterialEvaluator;
+import sim.RoundMoves;
+import sim.RoundSimulator;
+import sim.StateEvaluator;
+
+/**
+ * @author PandaCoders A Bot that plans with Monte Carlo Tree Search.
+ *
+ *         Every node of the tree is the map at the start of a round. Its
+ *         children are the candidate plans we could play in that round: the
+ *         placements and attacks BotStarter would choose, plus variations that
+ *         put all the armies on one of the edges and attack from there. The
+ *         opponent is assumed to answer with BotStarter's plan from his side
+ *         of the map. Leaves are played out with BotStarter for both players
+ *         for a few rounds and the resulting map is scored. Rounds are played
+ *         by the RoundSimulator with the expected result of every battle.
+ *
+ *         The search runs while placing armies, within the time the
+ *         TimeManager gives that phase, and the attacks of the chosen plan are
+ *         played in the attack phase. The last part of that time the plans
+ *         tried at the root are played against the opponent's plan with random
+ *         battle results on all cores by the RolloutEvaluator, and the plan
+ *         with the best sum of both scores is chosen.
+ *
+ *         With a fixed number of iterations the search ignores the time and
+ *         the root's plans get a fixed number of rollouts, so the same seed
+ *         plays the same game.
+ */
+public class MctsBot implements Bot {
+
+	// how many rounds a playout looks ahead
+	private static final int PLAYOUT_ROUNDS = 2;
+
+	// the number of edges to try stacking all our armies on
+	private static final int STACK_CANDIDATES = 4;
+
+	// exploration constant of the UCT formula
+	private static final double EXPLORATION = 0.7;
+
+	// the part of the search time spent on the tree, the rest goes to the
+	// rollouts of the root's plans
+	private static final double TREE_SHARE = 0.7;
+
+	// the most rollouts per plan at the root
+	private static final int MAX_ROLLOUTS = 512;
+
+	// the rollouts per plan at the root when searching a fixed number of
+	// iterations
+	private static final int FIXED_ROLLOUTS = 128;
+
+	private final BotStarter policy;
+	private final StateEvaluator evaluator = new MaterialEvaluator();
+	private final long seed;
+
+	// the iterations searched every round, 0 to search until the deadline
+	private final int fixedIterations;
+
+	// the state we play from, and the one that plays the opponent's side
+	private BotState mySimulation;
+	private BotState opponentSimulation;
+
+	// buffers for the root, playouts and for mirroring states, reused
+	private MapState believedState;
+	private MapState playoutState;
+	private MapState mirroredState;
+
+	// plays the rounds of the tree and of the playouts
+	private RoundSimulator simulator;
+	private RolloutEvaluator rollouts;
+
+	// the plan chosen in the placement phase, played in the attack phase
+	private RoundMoves chosen;
+	private boolean usedFallback;
+
+	private int iterations;
+
+	public MctsBot() {
+		this(System.nanoTime());
+	}
+
+	/**
+	 * Searches until the deadline, so how far it gets, and with that the plan,
+	 * depends on the time it gets.
+	 * 
+	 * @param seed
+	 *            the seed of all random choices
+	 */
+	public MctsBot(long seed) {
+		this(seed, 0);
+	}
+
+	/**
+	 * @param seed
+	 *            the seed of all random choices
+	 * @param iterations
+	 *            the iterations to search every round whatever the time, so
+	 *            games can be replayed; 0 to search until the deadline
+	 */
+	public MctsBot(long seed, int iterations) {
+		this.seed = seed;
+		this.fixedIterations = iterations;
+		policy = new BotStarter(seed);
+	}
+
+	@Override
+	public Region getStartingRegion(BotState state, Long timeOut) {
+		return policy.getStartingRegion(state, timeOut);
+	}
+
+	@Override
+	public ArrayList<PlaceArmiesMove> getPlaceArmiesMoves(BotState state,
+			Long timeOut) {
+		chosen = null;
+		usedFallback = false;
+		Deadline deadline = state.getTimeManager().getDeadline();
+
+		if (mySimulation == null)
+			init(state);
+
+		// the search plays on the map as we believe it is, fog included
+		state.getFogBelief().fill(believedState);
+		chosen = search(believedState, state.getStartingArmies(), seed
+				+ state.getRoundNumber(), deadline);
+
+		if (chosen == null) {
+			usedFallback = true;
+			return policy.getPlaceArmiesMoves(state, timeOut);
+		}
+
+		ArrayList<PlaceArmiesMove> placeArmiesMoves = new ArrayList<PlaceArmiesMove>();
+		Map map = state.getFullMap();
+		for (int i = 0; i < chosen.getPlaceCount(); i++) {
+			Region region = map.getRegion(chosen.getPlaceRegion(i));
+			placeArmiesMoves.add(new PlaceArmiesMove(state.getMyPlayerName(),
+					region, chosen.getPlaceArmies(i)));
+			region.setArmies(region.getArmies() + chosen.getPlaceArmies(i));
+		}
+		return placeArmiesMoves;
+	}
+
+	@Override
+	public ArrayList<AttackTransferMove> getAttackTransferMoves(
+			BotState state, Long timeOut) {
+		if (usedFallback || chosen == null)
+			return policy.getAttackTransferMoves(state, timeOut);
+
+		ArrayList<AttackTransferMove> attackTransferMoves = new ArrayList<AttackTransferMove>();
+		Map map = state.getFullMap();
+		for (int i = 0; i < chosen.getMoveCount(); i++)
+			attackTransferMoves.add(new AttackTransferMove(state
+					.getMyPlayerName(), map.getRegion(chosen.getMoveFrom(i)), map
+					.getRegion(chosen.getMoveTo(i)), chosen.getMoveArmies(i)));
+		return attackTransferMoves;
+	}
+
+	/**
+	 * @return The number of search iterations done in the last placement
+	 *         phase
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	private void init(BotState state) {
+		mySimulation = state.createSimulationState(false);
+		opponentSimulation = state.createSimulationState(true);
+
+		simulator = new RoundSimulator(state.getFullMap());
+		rollouts = new RolloutEvaluator(state.getFullMap(), evaluator);
+		int size = state.getFullMap().getState().size();
+		believedState = new MapState(size);
+		playoutState = new MapState(size);
+		mirroredState = new MapState(size);
+	}
+
+	/**
+	 * Runs the search from the given state until the deadline, or for the
+	 * fixed number of iterations.
+	 *
+	 * @return The best plan, null if there was none
+	 */
+	private RoundMoves search(MapState rootState, int startingArmies,
+			long roundSeed, Deadline deadline) {
+		Deadline treeDeadline = deadline.split(TREE_SHARE);
+		Node root = new Node(null, null, rootState.copy());
+		root.myArmies = startingArmies;
+		expand(root);
+		iterations = 0;
+		if (root.untried.isEmpty())
+			return null;
+
+		do {
+			Node node = root;
+
+			// selection
+			while (node.untried.isEmpty() && !node.children.isEmpty())
+				node = node.select();
+
+			// expansion
+			if (!node.untried.isEmpty()) {
+				RoundMoves plan = node.untried.remove(node.untried.size() - 1);
+				MapState next = node.state.copy();
+				simulator.simulate(next, plan, node.getOpponentPlan());
+				Node child = new Node(node, plan, next);
+				node.children.add(child);
+				expand(child);
+				node = child;
+			}
+
+			// playout and backpropagation
+			double value = playout(node.state);
+			for (; node != null; node = node.parent) {
+				node.visits++;
+				node.value += value;
+			}
+			iterations++;
+		} while (fixedIterations > 0 ? iterations < fixedIterations
+				: !treeDeadline.isExpired());
+
+		if (root.children.isEmpty())
+			return root.untried.get(0);
+
+		// the rollouts score the plans on the luck of the battles, which the
+		// tree plays with their expected results
+		ArrayList<RoundMoves> plans = new ArrayList<RoundMoves>();
+		for (Node child : root.children)
+			plans.add(child.plan);
+		double[] scores = fixedIterations > 0 ? rollouts.evaluate(rootState,
+				plans, root.getOpponentPlan(), roundSeed, FIXED_ROLLOUTS)
+				: rollouts.evaluate(rootState, plans, root.getOpponentPlan(),
+						roundSeed, MAX_ROLLOUTS, deadline);
+
+		Node best = null;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < root.children.size(); i++) {
+			Node child = root.children.get(i);
+			double score = child.value / child.visits + scores[i];
+			if (score > bestScore) {
+				bestScore = score;
+				best = child;
+			}
+		}
+		return best.plan;
+	}
+
+	/**
+	 * Generates the candidate plans of a node.
+	 */
+	private void expand(Node node) {
+		node.untried = new ArrayList<RoundMoves>();
+		if (node.myArmies == 0)
+			node.myArmies = simulator.getIncome(node.state, Owner.ME);
+		if (!simulator.hasEdge(node.state, Owner.ME))
+			return;
+
+		// the greedy plan is tried first, so it goes last in the list
+		RoundMoves greedy = getGreedyPlan(node.state, false, node.myArmies);
+
+		// stack all armies on one of the edges with the highest priority
+		mySimulation.setMapState(node.state);
+		mySimulation.setStartingArmies(node.myArmies);
+		mySimulation.detMyEdgeTerritories();
+		ArrayList<Region> edges = new ArrayList<Region>(
+				mySimulation.getMyEdgeTerritories());
+		mySimulation.sortTerritories(edges);
+		for (int i = 0; i < edges.size() && i < STACK_CANDIDATES; i++) {
+			RoundMoves stack = getStackPlan(node.state, node.myArmies,
+					edges.get(i).getId());
+			if (!contains(node.untried, stack) && !stack.sameAs(greedy))
+				node.untried.add(stack);
+		}
+		node.untried.add(greedy);
+	}
+
+	private static boolean contains(ArrayList<RoundMoves> plans,
+			RoundMoves plan) {
+		for (RoundMoves other : plans)
+			if (other.sameAs(plan))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return The plan BotStarter would play in the given state, for us or
+	 *         for the opponent
+	 */
+	private RoundMoves getGreedyPlan(MapState state, boolean asOpponent,
+			int armies) {
+		byte owner = asOpponent ? Owner.OPPONENT : Owner.ME;
+		if (!simulator.hasEdge(state, owner))
+			return new RoundMoves();
+
+		BotState simulation = asOpponent ? opponentSimulation : mySimulation;
+		if (asOpponent) {
+			mirroredState.copyFrom(state);
+			mirroredState.swapPlayers();
+			simulation.setMapState(mirroredState);
+		} else
+			simulation.setMapState(state);
+		simulation.setStartingArmies(armies);
+
+		RoundMoves plan = new RoundMoves();
+		plan.addPlacements(policy.getPlaceArmiesMoves(simulation, null));
+		plan.addMoves(policy.getAttackTransferMoves(simulation, null));
+		return plan;
+	}
+
+	/**
+	 * @return The plan that puts all the armies on one region and then
+	 *         attacks the way BotStarter does
+	 */
+	private RoundMoves getStackPlan(MapState state, int armies, int regionId) {
+		mySimulation.setMapState(state);
+		mySimulation.setStartingArmies(armies);
+		mySimulation.detMyEdgeTerritories();
+		Region region = mySimulation.getFullMap().getRegion(regionId);
+		region.setArmies(region.getArmies() + armies);
+
+		RoundMoves plan = new RoundMoves();
+		plan.addPlacement(regionId, armies);
+		plan.addMoves(policy.getAttackTransferMoves(mySimulation, null));
+		return plan;
+	}
+
+	/**
+	 * Plays both players' greedy plans for a few rounds from the given state.
+	 *
+	 * @return The score of the resulting state
+	 */
+	private double playout(MapState state) {
+		playoutState.copyFrom(state);
+		for (int round = 0; round < PLAYOUT_ROUNDS; round++) {
+			if (!simulator.hasEdge(playoutState, Owner.ME)
+					|| !simulator.hasEdge(playoutState, Owner.OPPONENT))
+				break;
+			RoundMoves mine = getGreedyPlan(playoutState, false,
+					simulator.getIncome(playoutState, Owner.ME));
+			RoundMoves theirs = getGreedyPlan(playoutState, true,
+					simulator.getIncome(playoutState, Owner.OPPONENT));
+			simulator.simulate(playoutState, mine, theirs);
+		}
+		return evaluator.evaluate(playoutState, simulator);
+	}
+
+	/**
+	 * The map at the start of a round, reached by playing plan from the
+	 * parent's map.
+	 */
+	private class Node {
+		final Node parent;
+		final RoundMoves plan;
+		final MapState state;
+		int myArmies;
+
+		ArrayList<RoundMoves> untried;
+		final ArrayList<Node> children = new ArrayList<Node>();
+		private RoundMoves opponentPlan;
+
+		int visits;
+		double value;
+
+		Node(Node parent, RoundMoves plan, MapState state) {
+			this.parent = parent;
+			this.plan = plan;
+			this.state = state;
+		}
+
+		RoundMoves getOpponentPlan() {
+			if (opponentPlan == null)
+				opponentPlan = getGreedyPlan(state, true,
+						simulator.getIncome(state, Owner.OPPONENT));
+			return opponentPlan;
+		}
+
+		Node select() {
+			Node best = null;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			double logVisits = Math.log(visits);
+			for (Node child : children) {
+				double score = child.value / child.visits + EXPLORATION
+						* Math.sqrt(logVisits / child.visits);
+				if (score > bestScore) {
+					bestScore = score;
+					best = child;
+				}
+			}
+			return best;
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+package bot;
+
+import java.util.Arrays;
+
+import map.Adjacency;
+import map.AttackEstimate;
+import map.FogBelief;
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Region;
+import map.RegionSet;
+
+/**
+ * @author PandaCoders Learns from the opponent's moves what he is likely to do
+ *         next. For every Region it keeps averages over the past rounds, in
+ *         which every round weighs DECAY times the round after it: how many
+ *         armies the opponent placed there, how often it bordered one of our
+ *         Regions and how often it attacked one of them then. Updating takes
+ *         one pass over the Regions per round, and the memory doesn't grow
+ *         with the length of the game.
+ * 
+ *         From that it predicts how fast the opponent's Regions in the fog
+ *         grow (see FogBelief) and how hard our Regions will be attacked.
+ *         Before anything is seen every Region bordering ours is expected to
+ *         attack with all its armies.
+ */
+public class OpponentModel implements AttackEstimate {
+
+	// the weight of a round relative to the round after it
+	private static final float DECAY = 0.8f;
+
+	// the attacks and chances to attack a Region is assumed to have had
+	// before anything was seen
+	private static final float PRIOR_ATTACKS = 1f;
+	private static final float PRIOR_CHANCES = 1f;
+
+	private final Map map;
+
+	// the decayed sums of the armies placed on every Region, of the rounds
+	// it bordered our Regions and of the rounds it attacked them then
+	private float[] placed = new float[0];
+	private float[] chances = new float[0];
+	private float[] attacks = new float[0];
+
+	// the decayed sum of the armies the opponent placed in sight per round
+	private float income;
+
+	// what we believe about the Regions we can't see, told how fast they grow
+	private final FogBelief belief;
+
+	// the opponent's Regions bordering ours, and our Regions, at the start of
+	// the round whose moves are observed next
+	private final RegionSet borders = new RegionSet(0);
+	private final RegionSet mine = new RegionSet(0);
+	// the Regions that attacked us in the round being observed
+	private final RegionSet attackers = new RegionSet(0);
+
+	/**
+	 * @param map
+	 *            the map the opponent's moves are made on
+	 * @param belief
+	 *            the belief about the hidden Regions of the map; the armies
+	 *            the opponent places on them are thought to be added to them
+	 *            every round
+	 */
+	public OpponentModel(Map map, FogBelief belief) {
+		this.map = map;
+		this.belief = belief;
+	}
+
+	/**
+	 * Learns from the opponent's moves of the last round. Must be called
+	 * after the map was updated with the result of that round.
+	 * 
+	 * @param owners
+	 *            the Owner code of the player of every move
+	 * @param fromIds
+	 *            the region armies are placed on or moved from
+	 * @param toIds
+	 *            the region armies are moved to, -1 for placements
+	 * @param armies
+	 * @param count
+	 *            the number of moves stored in the arrays
+	 */
+	public void observe(byte[] owners, int[] fromIds, int[] toIds,
+			int[] armies, int count) {
+		MapState state = map.getState();
+		ensureCapacity(state.size());
+
+		for (int id = 0; id < placed.length; id++) {
+			placed[id] *= DECAY;
+			chances[id] *= DECAY;
+			attacks[id] *= DECAY;
+		}
+		income *= DECAY;
+
+		attackers.clear();
+		for (int i = 0; i < count; i++) {
+			if (owners[i] != Owner.OPPONENT || fromIds[i] >= placed.length)
+				continue;
+			if (toIds[i] < 0) {
+				placed[fromIds[i]] += armies[i];
+				income += armies[i];
+			} else if (borders.contains(fromIds[i]) && mine.contains(toIds[i]))
+				attackers.add(fromIds[i]);
+		}
+		for (int id = borders.first(); id >= 0; id = borders.next(id + 1)) {
+			chances[id]++;
+			if (attackers.contains(id))
+				attacks[id]++;
+		}
+		for (int id = 0; id < placed.length; id++)
+			belief.setGrowth(id, getPlacementRate(id));
+
+		// what the next round starts with
+		borders.clear();
+		mine.clear();
+		Adjacency adjacency = map.getAdjacency();
+		for (int id = 0; id < adjacency.size(); id++)
+			if (state.getOwner(id) == Owner.ME) {
+				mine.add(id);
+				for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+					if (state.getOwner(adjacency.target(k)) == Owner.OPPONENT)
+						borders.add(adjacency.target(k));
+			}
+	}
+
+	/**
+	 * @return The part of the rounds in which the Region bordered ours that it
+	 *         attacked us, between 0 and 1
+	 */
+	public float getAggression(int regionId) {
+		if (regionId >= attacks.length)
+			return PRIOR_ATTACKS / PRIOR_CHANCES;
+		return Math.min(1f, (attacks[regionId] + PRIOR_ATTACKS)
+				/ (chances[regionId] + PRIOR_CHANCES));
+	}
+
+	/**
+	 * @return The armies the opponent places on the Region per round, on
+	 *         average over the past rounds
+	 */
+	public float getPlacementRate(int regionId) {
+		return regionId < placed.length ? placed[regionId] * (1 - DECAY) : 0;
+	}
+
+	/**
+	 * @return The armies the opponent places in sight per round, on average
+	 *         over the past rounds
+	 */
+	public float getIncome() {
+		return income * (1 - DECAY);
+	}
+
+	/**
+	 * Every neighbor of the opponent is expected to attack with the armies it
+	 * has and places on average, as often as it did in the past.
+	 */
+	@Override
+	public int expectedAttack(Region region) {
+		MapState state = region.getMap().getState();
+		Adjacency adjacency = region.getMap().getAdjacency();
+		int id = region.getId();
+		float attack = 0;
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++) {
+			int neighbor = adjacency.target(k);
+			if (state.getOwner(neighbor) == Owner.OPPONENT)
+				attack += (state.getArmies(neighbor) - 1 + getPlacementRate(neighbor))
+						* getAggression(neighbor);
+		}
+		return (int) Math.ceil(attack);
+	}
+
+	private void ensureCapacity(int size) {
+		if (size <= placed.length)
+			return;
+		placed = Arrays.copyOf(placed, size);
+		chances = Arrays.copyOf(chances, size);
+		attacks = Arrays.copyOf(attacks, size);
+	}
+
+}
@@ -0,0 +1,119 @@
+package bot;
+
+import java.util.Arrays;
+import java.util.List;
+
+import map.Adjacency;
+import map.Combat;
+import map.Map;
+import map.Ranking;
+import map.Region;
+import map.SuperRegion;
+
+/**
+ * @author PandaCoders Decides once, after the map is set up, which starting
+ *         Regions we want most, so every pick request is answered by looking
+ *         up the ranks of the pickable Regions.
+ * 
+ *         A SuperRegion is worth its reward per army it costs: the armies
+ *         needed to capture its Regions from the neutral armies they start
+ *         with, wastelands being expensive, plus BORDER_COST for every one of
+ *         its Regions that borders another SuperRegion and so has to be
+ *         defended once we own it. A Region is ranked by the worth of its
+ *         SuperRegion, then the smaller SuperRegion, then the smaller id.
+ */
+public class PickPlanner {
+
+	// the armies on the neutral Regions and the wastelands at the start
+	static final int NEUTRAL_ARMIES = 2;
+	static final int WASTELAND_ARMIES = 6;
+
+	// the armies a Region that borders other SuperRegions is thought to cost
+	// to hold
+	private static final float BORDER_COST = 2f;
+
+	// the worth of every SuperRegion, by id
+	private final float[] values;
+
+	// the rank of every Region, by id; 0 is the best
+	private final int[] ranks;
+
+	/**
+	 * @param map
+	 *            the map, completely set up
+	 * @param wastelands
+	 *            the wastelands of the map, null if there are none
+	 */
+	public PickPlanner(Map map, List<Region> wastelands) {
+		Adjacency adjacency = map.getAdjacency();
+		int size = adjacency.size();
+		boolean[] isWasteland = new boolean[size];
+		if (wastelands != null)
+			for (Region wasteland : wastelands)
+				isWasteland[wasteland.getId()] = true;
+
+		int maxSuperRegionId = 0;
+		for (SuperRegion superRegion : map.getSuperRegions())
+			maxSuperRegionId = Math.max(maxSuperRegionId, superRegion.getId());
+		values = new float[maxSuperRegionId + 1];
+		for (SuperRegion superRegion : map.getSuperRegions()) {
+			float cost = 0;
+			for (Region region : superRegion.getSubRegions()) {
+				int id = region.getId();
+				cost += Combat.armiesNeededToCapture(isWasteland[id]
+						? WASTELAND_ARMIES : NEUTRAL_ARMIES);
+				for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+					if (map.getRegion(adjacency.target(k)).getSuperRegion() != superRegion) {
+						cost += BORDER_COST;
+						break;
+					}
+			}
+			values[superRegion.getId()] = cost > 0 ? superRegion
+					.getArmiesReward() / cost : 0;
+		}
+
+		Ranking ranking = new Ranking(size);
+		int[] ids = new int[map.getRegions().size()];
+		int count = 0;
+		for (Region region : map.getRegions()) {
+			SuperRegion superRegion = region.getSuperRegion();
+			ranking.setKey(region.getId(), values[superRegion.getId()],
+					superRegion.getSubRegions().size());
+			ids[count++] = region.getId();
+		}
+		ranking.sort(ids, count);
+
+		ranks = new int[size];
+		Arrays.fill(ranks, Integer.MAX_VALUE);
+		for (int rank = 0; rank < count; rank++)
+			ranks[ids[rank]] = rank;
+	}
+
+	/**
+	 * @return How much the SuperRegion is worth to start in
+	 */
+	public float getValue(int superRegionId) {
+		return values[superRegionId];
+	}
+
+	/**
+	 * @return The rank of the Region as a starting Region, 0 is the best
+	 */
+	public int getRank(int regionId) {
+		return ranks[regionId];
+	}
+
+	/**
+	 * @param pickable
+	 *            the Regions that can be picked, not empty
+	 * @return The one we want most
+	 */
+	public Region pick(List<Region> pickable) {
+		Region best = pickable.get(0);
+		for (Region region : pickable)
+			if (ranks[region.getId()] < ranks[best.getId()])
+				best = region;
+		return best;
+	}
+
+}
@@ -0,0 +1,183 @@
+package bot;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders Measures where the time of a turn goes: how long every
+ *         run of a Section took, kept in a histogram per Section, and how
+ *         many bytes it allocated. Sections can be nested; a Section's time
+ *         includes the Sections inside it.
+ * 
+ *         The histograms work like HdrHistogram's: values below 32 ns get a
+ *         bucket each, above that every power of two is split in 16 buckets,
+ *         so a percentile is off by at most 1/16 and recording is a few
+ *         shifts. A disabled profiler does nothing but check a flag.
+ */
+public class Profiler {
+
+	public enum Section {
+		COMMAND, UPDATE_MAP, READ_OPPONENT_MOVES, EDGE_TERRITORIES, DEFEND, DEPLOY_TO_EXPAND, DEPLOY_REST, IDLE_TRANSFERS, ATTACKS
+	}
+
+	// the bytes allocated by a thread so far, null if the JVM can't tell
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+	static {
+		java.lang.management.ThreadMXBean threads = ManagementFactory
+				.getThreadMXBean();
+		com.sun.management.ThreadMXBean allocations = null;
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			allocations = (com.sun.management.ThreadMXBean) threads;
+			if (!allocations.isThreadAllocatedMemorySupported()
+					|| !allocations.isThreadAllocatedMemoryEnabled())
+				allocations = null;
+		}
+		ALLOCATIONS = allocations;
+	}
+
+	private boolean enabled;
+
+	private final Histogram[] times = new Histogram[Section.values().length];
+	private final long[] allocated = new long[times.length];
+
+	// the Sections begun and not ended yet, with their start
+	private Section[] open = new Section[8];
+	private long[] startNanos = new long[open.length];
+	private long[] startBytes = new long[open.length];
+	private int depth;
+
+	public Profiler() {
+		for (int i = 0; i < times.length; i++)
+			times[i] = new Histogram();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		depth = 0;
+	}
+
+	/**
+	 * Starts measuring a run of the section
+	 */
+	public void begin(Section section) {
+		if (!enabled)
+			return;
+		if (depth == open.length) {
+			open = Arrays.copyOf(open, 2 * depth);
+			startNanos = Arrays.copyOf(startNanos, 2 * depth);
+			startBytes = Arrays.copyOf(startBytes, 2 * depth);
+		}
+		open[depth] = section;
+		startBytes[depth] = allocatedBytes();
+		startNanos[depth] = System.nanoTime();
+		depth++;
+	}
+
+	/**
+	 * Stops measuring the last run of the section that was begun. Sections
+	 * inside it that weren't ended, e.g. because of an exception, are
+	 * dropped.
+	 */
+	public void end(Section section) {
+		if (!enabled)
+			return;
+		long now = System.nanoTime();
+		long bytes = allocatedBytes();
+		while (depth > 0) {
+			depth--;
+			if (open[depth] == section) {
+				times[section.ordinal()].record(now - startNanos[depth]);
+				allocated[section.ordinal()] += bytes - startBytes[depth];
+				return;
+			}
+		}
+	}
+
+	private static long allocatedBytes() {
+		return ALLOCATIONS == null ? 0 : ALLOCATIONS
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Prints a line per section that was run: how often, its percentiles
+	 * and maximum in microseconds, and the kilobytes allocated per run
+	 */
+	public void report(PrintStream out) {
+		out.printf("%-20s %8s %10s %10s %10s %10s %10s%n", "section", "runs",
+				"p50 us", "p90 us", "p99 us", "max us",
+				ALLOCATIONS == null ? "" : "KB/run");
+		for (Section section : Section.values()) {
+			Histogram histogram = times[section.ordinal()];
+			if (histogram.count == 0)
+				continue;
+			out.printf("%-20s %8d %10.1f %10.1f %10.1f %10.1f", section,
+					histogram.count, histogram.percentile(50) / 1e3,
+					histogram.percentile(90) / 1e3,
+					histogram.percentile(99) / 1e3, histogram.max / 1e3);
+			if (ALLOCATIONS != null)
+				out.printf(" %10.1f", allocated[section.ordinal()] / 1024.0
+						/ histogram.count);
+			out.println();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Counts values in buckets of logarithmically growing width
+	 */
+	private static class Histogram {
+		// values below this get a bucket each
+		private static final int LINEAR_BITS = 5;
+		private static final int LINEAR = 1 << LINEAR_BITS;
+		// the buckets every power of two above that is split in
+		private static final int HALF = LINEAR >> 1;
+
+		private final long[] counts = new long[index(Long.MAX_VALUE) + 1];
+		private long count;
+		private long max;
+
+		void record(long value) {
+			value = Math.max(0, value);
+			counts[index(value)]++;
+			count++;
+			max = Math.max(max, value);
+		}
+
+		/**
+		 * @return The biggest value of the bucket at least the given percent
+		 *         of the values are in or below
+		 */
+		long percentile(double percent) {
+			long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank)
+					return Math.min(max, highest(i));
+			}
+			return max;
+		}
+
+		private static int index(long value) {
+			if (value < LINEAR)
+				return (int) value;
+			int shift = 64 - Long.numberOfLeadingZeros(value) - LINEAR_BITS;
+			return LINEAR + (shift - 1) * HALF
+					+ (int) ((value >>> shift) - HALF);
+		}
+
+		private static long highest(int index) {
+			if (index < LINEAR)
+				return index;
+			int shift = (index - LINEAR) / HALF + 1;
+			long lowest = (long) ((index - LINEAR) % HALF + HALF) << shift;
+			return lowest + (1L << shift) - 1;
+		}
+	}
+
+}
@@ -0,0 +1,247 @@
+package bot;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import map.Map;
+import map.MapState;
+import sim.RoundMoves;
+import sim.RoundSimulator;
+import sim.StateEvaluator;
+
+/**
+ * @author PandaCoders Scores candidate plans for a round by playing the round
+ *         many times with random battle results and averaging the scores of
+ *         the outcomes. The rollouts run on a work-stealing pool; every thread
+ *         has its own simulator and state to play on. Evaluators share one
+ *         pool with a thread for every processor unless they are given their
+ *         own, so bots playing side by side don't oversubscribe the machine.
+ *
+ *         Every rollout gets its own seed, made from the given seed, the
+ *         candidate and the rollout's number, and the scores are added up in
+ *         the same order whichever thread played them. So with the same seed
+ *         and the same number of rollouts the result doesn't depend on the
+ *         number of threads. The rollouts are run in waves, the deadline is
+ *         checked between waves and only complete waves count, so for a
+ *         result that can be replayed the number of rollouts has to be fixed
+ *         instead.
+ */
+public class RolloutEvaluator {
+
+	// the rollouts per candidate in a wave
+	private static final int WAVE_SIZE = 16;
+
+	// the rollouts a task plays itself instead of splitting them
+	private static final int TASK_SIZE = 4;
+
+	private final Map topology;
+	private final StateEvaluator evaluator;
+	private final ForkJoinPool pool;
+	private final boolean ownPool;
+
+	// the pool of the evaluators that don't have their own, made when the
+	// first one is
+	private static ForkJoinPool sharedPool;
+	private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+		@Override
+		protected Worker initialValue() {
+			return new Worker();
+		}
+	};
+
+	// the rollouts per candidate done in the last evaluation
+	private int rollouts;
+
+	/**
+	 * @param topology
+	 *            the full map; it must not change while evaluating
+	 * @param evaluator
+	 *            scores the outcomes of the rollouts
+	 * @param threads
+	 *            the number of threads of its own pool to play the rollouts
+	 *            on; close() stops them
+	 */
+	public RolloutEvaluator(Map topology, StateEvaluator evaluator, int threads) {
+		this(topology, evaluator, new ForkJoinPool(Math.max(1, threads)), true);
+	}
+
+	/**
+	 * Plays the rollouts on the pool shared by all evaluators, with a thread
+	 * for every processor.
+	 */
+	public RolloutEvaluator(Map topology, StateEvaluator evaluator) {
+		this(topology, evaluator, getSharedPool(), false);
+	}
+
+	private RolloutEvaluator(Map topology, StateEvaluator evaluator,
+			ForkJoinPool pool, boolean ownPool) {
+		this.topology = topology;
+		this.evaluator = evaluator;
+		this.pool = pool;
+		this.ownPool = ownPool;
+		// built here, so the workers only read it
+		topology.getAdjacency();
+	}
+
+	private static synchronized ForkJoinPool getSharedPool() {
+		if (sharedPool == null)
+			sharedPool = new ForkJoinPool(Runtime.getRuntime()
+					.availableProcessors());
+		return sharedPool;
+	}
+
+	/**
+	 * Stops the threads of the evaluator's own pool; the shared pool keeps
+	 * running.
+	 */
+	public void close() {
+		if (ownPool)
+			pool.shutdown();
+	}
+
+	/**
+	 * Plays exactly the given number of rollouts for every candidate, so the
+	 * result only depends on the seed.
+	 *
+	 * @see #evaluate(MapState, List, RoundMoves, long, int, Deadline)
+	 */
+	public double[] evaluate(MapState state, List<RoundMoves> candidates,
+			RoundMoves opponent, long seed, int rollouts) {
+		return evaluate(state, candidates, opponent, seed, rollouts,
+				Deadline.none());
+	}
+
+	/**
+	 * Plays every candidate against the opponent's plan until the deadline or
+	 * until every candidate got maxRollouts rollouts. At least one wave is
+	 * played.
+	 *
+	 * @param state
+	 *            the state at the start of the round; it isn't changed
+	 * @param candidates
+	 *            our possible plans for the round
+	 * @param opponent
+	 *            the plan we expect from the opponent
+	 * @param seed
+	 *            the seed of the random battle results
+	 * @param maxRollouts
+	 *            the most rollouts to do per candidate
+	 * @param deadline
+	 * @return The average score of every candidate, between 0 and 1
+	 */
+	public double[] evaluate(MapState state, List<RoundMoves> candidates,
+			RoundMoves opponent, long seed, int maxRollouts, Deadline deadline) {
+		int count = candidates.size();
+		RoundMoves[] plans = candidates.toArray(new RoundMoves[count]);
+		double[] sums = new double[count];
+		double[] scores = new double[count * WAVE_SIZE];
+
+		rollouts = 0;
+		while (rollouts < maxRollouts && count > 0
+				&& (rollouts == 0 || !deadline.isExpired())) {
+			int wave = Math.min(WAVE_SIZE, maxRollouts - rollouts);
+			pool.invoke(new Rollouts(state, plans, opponent, seed, rollouts,
+					wave, scores, 0, count * wave));
+
+			// merged in a fixed order, so the sums are the same on any pool
+			for (int c = 0; c < count; c++)
+				for (int r = 0; r < wave; r++)
+					sums[c] += scores[c * wave + r];
+			rollouts += wave;
+		}
+
+		for (int c = 0; c < count; c++)
+			sums[c] = rollouts == 0 ? 0 : sums[c] / rollouts;
+		return sums;
+	}
+
+	/**
+	 * @return The number of rollouts every candidate got in the last
+	 *         evaluation
+	 */
+	public int getRollouts() {
+		return rollouts;
+	}
+
+	/**
+	 * @return The seed of a single rollout
+	 */
+	static long rolloutSeed(long seed, int candidate, int rollout) {
+		// splitmix64 of the three numbers
+		long z = seed + 0x9E3779B97F4A7C15L * (1 + candidate)
+				+ 0xC2B2AE3D27D4EB4FL * (1 + rollout);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * What a thread needs to play rollouts: a simulator and a state to play
+	 * on.
+	 */
+	private class Worker {
+		final RoundSimulator simulator = new RoundSimulator(topology);
+		MapState state;
+
+		Worker() {
+			simulator.setMode(RoundSimulator.Mode.STOCHASTIC);
+		}
+	}
+
+	/**
+	 * Plays the rollouts first ... last - 1 of a wave. Rollout i of the wave
+	 * is rollout i % wave of candidate i / wave.
+	 */
+	private class Rollouts extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final MapState start;
+		private final RoundMoves[] plans;
+		private final RoundMoves opponent;
+		private final long seed;
+		private final int done;
+		private final int wave;
+		private final double[] scores;
+		private final int first, last;
+
+		Rollouts(MapState start, RoundMoves[] plans, RoundMoves opponent,
+				long seed, int done, int wave, double[] scores, int first,
+				int last) {
+			this.start = start;
+			this.plans = plans;
+			this.opponent = opponent;
+			this.seed = seed;
+			this.done = done;
+			this.wave = wave;
+			this.scores = scores;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > TASK_SIZE) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new Rollouts(start, plans, opponent, seed, done,
+						wave, scores, first, middle), new Rollouts(start, plans,
+						opponent, seed, done, wave, scores, middle, last));
+				return;
+			}
+
+			Worker worker = workers.get();
+			if (worker.state == null)
+				worker.state = start.copy();
+			for (int i = first; i < last; i++) {
+				int candidate = i / wave;
+				worker.state.copyFrom(start);
+				worker.simulator.setSeed(rolloutSeed(seed, candidate, done + i
+						% wave));
+				worker.simulator.simulate(worker.state, plans[candidate],
+						opponent);
+				scores[i] = evaluator.evaluate(worker.state, worker.simulator);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package bot;
+
+/**
+ * @author PandaCoders Keeps track of the timebank across the game and tells
+ *         every planning phase how much time it may spend.
+ * 
+ *         The engine gives every request the current timebank as its timeout
+ *         and adds time_per_move to the timebank with every request, up to
+ *         the initial timebank. A phase may spend the time it gets back plus
+ *         an equal share of what is left over for the remaining requests, so
+ *         the timebank is never drained early in the game.
+ */
+public class TimeManager {
+
+	public enum Phase {
+		PICK_STARTING_REGION(1.0), PLACE_ARMIES(0.4), ATTACK_TRANSFER(0.6);
+
+		// the part of a round's time this phase gets
+		private final double share;
+
+		private Phase(double share) {
+			this.share = share;
+		}
+	}
+
+	// time kept back for reading, writing and the engine's own overhead
+	public static final long SAFETY_MARGIN = 50;
+
+	// the number of rounds assumed when max_rounds isn't given
+	private static final int DEFAULT_ROUNDS = 60;
+
+	private long totalTimebank = 10000;
+	private long timePerMove = 500;
+	private int maxRounds;
+
+	// the timebank as of the start of the last phase, and when it started
+	private long timebank = -1;
+	private Phase phase;
+	private Deadline deadline = Deadline.none();
+	private long spent;
+
+	public void setTimebank(long totalTimebank) {
+		this.totalTimebank = totalTimebank;
+	}
+
+	public void setTimePerMove(long timePerMove) {
+		this.timePerMove = timePerMove;
+	}
+
+	public void setMaxRounds(int maxRounds) {
+		this.maxRounds = maxRounds;
+	}
+
+	/**
+	 * Starts the clock for a planning phase.
+	 * 
+	 * @param phase
+	 * @param timeOut
+	 *            the timebank the engine gave with the request, in
+	 *            milliseconds; null if unknown
+	 * @param roundNumber
+	 *            the current round
+	 * @return The deadline the phase has to be done by
+	 */
+	public Deadline startPhase(Phase phase, Long timeOut, int roundNumber) {
+		if (timeOut != null)
+			timebank = timeOut;
+		else if (timebank < 0)
+			timebank = totalTimebank;
+		else // what we spent since the last request, plus what it added
+			timebank = Math.min(totalTimebank, timebank - spent + timePerMove);
+
+		this.phase = phase;
+		this.spent = 0;
+		this.deadline = new Deadline(getBudget(phase, roundNumber));
+		return deadline;
+	}
+
+	/**
+	 * Stops the clock for the current phase.
+	 * 
+	 * @return The time the phase took, in milliseconds
+	 */
+	public long endPhase() {
+		spent = deadline.elapsedMillis();
+		return spent;
+	}
+
+	/**
+	 * @param phase
+	 * @param roundNumber
+	 * @return The time the phase may take, in milliseconds
+	 */
+	public long getBudget(Phase phase, int roundNumber) {
+		long available = timebank - SAFETY_MARGIN;
+		if (available <= 0)
+			return 0;
+		if (phase == Phase.PICK_STARTING_REGION)
+			return Math.min(available, timePerMove);
+
+		int rounds = maxRounds > 0 ? maxRounds : DEFAULT_ROUNDS;
+		int roundsLeft = Math.max(1, rounds - roundNumber + 1);
+		long surplus = Math.max(0, timebank - timePerMove);
+		long perRound = 2 * timePerMove + surplus / roundsLeft;
+		return Math.min(available, (long) (perRound * phase.share));
+	}
+
+	/**
+	 * @return The deadline of the current phase
+	 */
+	public Deadline getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * @return The phase that was started last, null before the first one
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * @return The timebank as of the start of the current phase, in
+	 *         milliseconds
+	 */
+	public long getTimebank() {
+		return timebank;
+	}
+
+}
@@ -0,0 +1,139 @@
+package map;
+
+/**
+ * @author PandaCoders The neighbors of all the Regions of a Map in compressed
+ *         sparse row form: the ids of the neighbors of Region id are
+ *         targets[offsets[id]] ... targets[offsets[id + 1] - 1], sorted
+ *         ascending. Iterating them allocates nothing:
+ *
+ *         <pre>
+ * for (int k = adjacency.begin(id); k &lt; adjacency.end(id); k++)
+ * 	visit(adjacency.target(k));
+ * </pre>
+ */
+public class Adjacency {
+
+	private final int[] offsets;
+	private final int[] targets;
+
+	Adjacency(int[] offsets, int[] targets) {
+		this.offsets = offsets;
+		this.targets = targets;
+	}
+
+	/**
+	 * Builds the adjacency of an undirected graph, ignoring duplicate edges
+	 *
+	 * @param size
+	 *            the biggest Region id + 1
+	 * @param from
+	 *            one end of every edge
+	 * @param to
+	 *            the other end of every edge
+	 * @param edgeCount
+	 *            the number of edges stored in from and to
+	 */
+	static Adjacency build(int size, int[] from, int[] to, int edgeCount) {
+		int[] offsets = new int[size + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			offsets[from[e] + 1]++;
+			offsets[to[e] + 1]++;
+		}
+		for (int id = 0; id < size; id++)
+			offsets[id + 1] += offsets[id];
+
+		// every edge is stored in both directions
+		int[] targets = new int[2 * edgeCount];
+		int[] next = new int[size];
+		System.arraycopy(offsets, 0, next, 0, size);
+		for (int e = 0; e < edgeCount; e++) {
+			targets[next[from[e]]++] = to[e];
+			targets[next[to[e]]++] = from[e];
+		}
+
+		// sort every row and squeeze out the duplicates
+		int written = 0;
+		for (int id = 0; id < size; id++) {
+			int begin = offsets[id], end = offsets[id + 1];
+			for (int k = begin + 1; k < end; k++) {
+				int target = targets[k];
+				int j = k - 1;
+				while (j >= begin && targets[j] > target) {
+					targets[j + 1] = targets[j];
+					j--;
+				}
+				targets[j + 1] = target;
+			}
+			offsets[id] = written;
+			for (int k = begin; k < end; k++)
+				if (k == begin || targets[k] != targets[k - 1])
+					targets[written++] = targets[k];
+		}
+		offsets[size] = written;
+
+		int[] compact = new int[written];
+		System.arraycopy(targets, 0, compact, 0, written);
+		return new Adjacency(offsets, compact);
+	}
+
+	/**
+	 * @return The number of Region ids this adjacency covers
+	 */
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @param id
+	 *            a Region id
+	 * @return The position of the first neighbor of the Region
+	 */
+	public int begin(int id) {
+		return offsets[id];
+	}
+
+	/**
+	 * @param id
+	 *            a Region id
+	 * @return The position after the last neighbor of the Region
+	 */
+	public int end(int id) {
+		return offsets[id + 1];
+	}
+
+	/**
+	 * @param k
+	 *            a position between begin(id) and end(id)
+	 * @return The id of the neighbor stored at that position
+	 */
+	public int target(int k) {
+		return targets[k];
+	}
+
+	/**
+	 * @param id
+	 *            a Region id
+	 * @return The number of neighbors of the Region
+	 */
+	public int degree(int id) {
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * @return True if the two Regions are neighbors, false otherwise
+	 */
+	public boolean isNeighbor(int id, int otherId) {
+		int low = offsets[id], high = offsets[id + 1] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (targets[middle] < otherId)
+				low = middle + 1;
+			else if (targets[middle] > otherId)
+				high = middle - 1;
+			else
+				return true;
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,19 @@
+package map;
+
+/**
+ * @author PandaCoders Predicts how hard the opponent will attack our Regions,
+ *         so they are defended against what is likely to come instead of
+ *         against every army around them (see Region.armiesNeededToDefend).
+ */
+public interface AttackEstimate {
+
+	/**
+	 * @param region
+	 *            one of our Regions; its map gives the current owners and
+	 *            armies
+	 * @return The number of armies the opponent is expected to attack the
+	 *         Region with next round
+	 */
+	int expectedAttack(Region region);
+
+}
@@ -0,0 +1,48 @@
+package map;
+
+/**
+ * @author PandaCoders The Warlight combat rules: every attacking army has a 60%
+ *         chance to kill one defending army and every defending army has a
+ *         70% chance to kill one attacking army.
+ */
+public final class Combat {
+
+	// the chance of an attacking army to kill a defending army
+	public static final double OFFENSIVE_KILL_RATE = 0.6;
+
+	// the chance of a defending army to kill an attacking army
+	public static final double DEFENSIVE_KILL_RATE = 0.7;
+
+	// the attackers we send per defender; a bit more than 1 /
+	// OFFENSIVE_KILL_RATE so the capture doesn't depend on luck
+	public static final double CAPTURE_FACTOR = 1.7;
+
+	private Combat() {
+	}
+
+	/**
+	 * @param attackers
+	 * @return The number of defending armies the attackers kill on average
+	 */
+	public static int expectedDefendersKilled(int attackers) {
+		return (int) Math.round(OFFENSIVE_KILL_RATE * attackers);
+	}
+
+	/**
+	 * @param defenders
+	 * @return The number of attacking armies the defenders kill on average
+	 */
+	public static int expectedAttackersKilled(int defenders) {
+		return (int) Math.round(DEFENSIVE_KILL_RATE * defenders);
+	}
+
+	/**
+	 * @param defenders
+	 * @return The number of armies we attack a region with these defenders
+	 *         with
+	 */
+	public static int armiesNeededToCapture(int defenders) {
+		return (int) Math.round(CAPTURE_FACTOR * defenders);
+	}
+
+}
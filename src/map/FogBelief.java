@@ -0,0 +1,148 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders What we believe about the Regions we can't see: the
+ *         owner and armies they had when we last saw them, the round that
+ *         was, and how many armies they are thought to gain per round since.
+ *         Kept in arrays indexed by the Region's id, which are updated from
+ *         the changes of every map update, so a belief about the whole map is
+ *         available at any time without building lists.
+ */
+public class FogBelief implements MapListener {
+
+	private final Map map;
+
+	private byte[] owners = new byte[0];
+	private int[] armies = new int[0];
+	// the round a Region was last seen in, -1 if never
+	private int[] seenRound = new int[0];
+	// the armies a hidden Region is thought to gain per round
+	private float[] growth = new float[0];
+
+	// the number of map updates seen
+	private int round;
+
+	/**
+	 * @param map
+	 *            the map whose updates are followed
+	 */
+	public FogBelief(Map map) {
+		this.map = map;
+	}
+
+	/**
+	 * Remembers the visible Regions that changed, and that the ones hidden
+	 * now were last seen, unchanged, in the round before. One of ours only
+	 * gets hidden when the opponent took it, so it is believed to be his.
+	 */
+	@Override
+	public void mapChanged(MapDelta delta) {
+		MapState state = map.getState();
+		ensureCapacity(state.size());
+		round++;
+		see(state, delta.getOwnerChanged());
+		see(state, delta.getArmiesChanged());
+		see(state, delta.getShown());
+		RegionSet hidden = delta.getHidden();
+		for (int id = hidden.first(); id >= 0; id = hidden.next(id + 1)) {
+			seenRound[id] = round - 1;
+			if (owners[id] == Owner.ME)
+				owners[id] = Owner.OPPONENT;
+		}
+	}
+
+	private void see(MapState state, RegionSet changed) {
+		for (int id = changed.first(); id >= 0; id = changed.next(id + 1))
+			if (state.getOwner(id) != Owner.UNKNOWN) {
+				owners[id] = state.getOwner(id);
+				armies[id] = state.getArmies(id);
+				seenRound[id] = round;
+			}
+	}
+
+	/**
+	 * A replaced state isn't something we saw
+	 */
+	@Override
+	public void mapReplaced() {
+	}
+
+	/**
+	 * @param regionId
+	 * @param armiesPerRound
+	 *            the armies the Region is thought to gain per round while it
+	 *            is hidden
+	 */
+	public void setGrowth(int regionId, float armiesPerRound) {
+		ensureCapacity(regionId + 1);
+		growth[regionId] = armiesPerRound;
+	}
+
+	/**
+	 * @return The owner of the Region if we see it, else the one we last saw,
+	 *         UNKNOWN if we never did
+	 */
+	public byte getOwner(int regionId) {
+		byte owner = map.getState().getOwner(regionId);
+		if (owner != Owner.UNKNOWN || regionId >= owners.length)
+			return owner;
+		return owners[regionId];
+	}
+
+	/**
+	 * @return The armies on the Region if we see it, else the ones we last saw
+	 *         plus what it gained since
+	 */
+	public float getArmies(int regionId) {
+		MapState state = map.getState();
+		if (state.getOwner(regionId) != Owner.UNKNOWN
+				|| regionId >= armies.length || seenRound[regionId] < 0)
+			return state.getArmies(regionId);
+		return armies[regionId] + growth[regionId] * getRoundsHidden(regionId);
+	}
+
+	/**
+	 * @return The rounds since the Region was last seen, 0 if it is visible,
+	 *         -1 if it was never seen
+	 */
+	public int getRoundsHidden(int regionId) {
+		if (map.getState().getOwner(regionId) != Owner.UNKNOWN)
+			return 0;
+		if (regionId >= seenRound.length || seenRound[regionId] < 0)
+			return -1;
+		return round - seenRound[regionId];
+	}
+
+	/**
+	 * Overwrites the state with the map as we believe it is: what we see,
+	 * and for the hidden Regions we saw before what we believe about them.
+	 * Regions never seen stay unknown.
+	 * 
+	 * @param state
+	 *            a state as big as the map's
+	 */
+	public void fill(MapState state) {
+		MapState visible = map.getState();
+		state.copyFrom(visible);
+		int count = Math.min(state.size(), owners.length);
+		for (int id = 0; id < count; id++)
+			if (visible.getOwner(id) == Owner.UNKNOWN && seenRound[id] >= 0) {
+				state.setOwner(id, owners[id]);
+				state.setArmies(id, Math.round(getArmies(id)));
+			}
+	}
+
+	private void ensureCapacity(int size) {
+		if (size <= owners.length)
+			return;
+		int oldSize = owners.length;
+		owners = Arrays.copyOf(owners, size);
+		armies = Arrays.copyOf(armies, size);
+		seenRound = Arrays.copyOf(seenRound, size);
+		Arrays.fill(seenRound, oldSize, size, -1);
+		growth = Arrays.copyOf(growth, size);
+	}
+
+}
@@ -0,0 +1,129 @@
+package map;
+
+/**
+ * @author PandaCoders Splits the Regions a player owns into edges, which have
+ *         a neighbor the player doesn't own, and inner Regions, which are
+ *         surrounded by the player's own Regions.
+ *
+ *         After the first classification only the Regions that changed hands
+ *         and their neighbors are looked at again: a Region's class depends
+ *         only on who owns it and its neighbors, and only whether that is the
+ *         player or not.
+ */
+public class Frontier implements MapListener {
+
+	private final Map map;
+	private final Adjacency adjacency;
+	private final byte owner;
+
+	private final RegionSet edges;
+	private final RegionSet inner;
+
+	// for every Region, whether it was the player's when it was last
+	// classified
+	private final boolean[] owned;
+
+	/**
+	 * Classifies all the Regions of the map as they are now.
+	 *
+	 * @param map
+	 *            a map whose topology is complete
+	 * @param owner
+	 *            the Owner code of the player
+	 */
+	public Frontier(Map map, byte owner) {
+		this.map = map;
+		this.adjacency = map.getAdjacency();
+		this.owner = owner;
+		int size = adjacency.size();
+		edges = new RegionSet(size);
+		inner = new RegionSet(size);
+		owned = new boolean[size];
+		rebuild();
+	}
+
+	/**
+	 * @return The adjacency the frontier was built on; a new one means the
+	 *         topology changed
+	 */
+	public Adjacency getAdjacency() {
+		return adjacency;
+	}
+
+	/**
+	 * Classifies all the Regions again.
+	 */
+	public void rebuild() {
+		MapState state = map.getState();
+		edges.clear();
+		inner.clear();
+		for (int id = 0; id < owned.length; id++)
+			owned[id] = state.getOwner(id) == owner;
+		for (int id = 0; id < owned.length; id++)
+			classify(id);
+	}
+
+	/**
+	 * Classifies the Regions again that changed hands in the update, and their
+	 * neighbors.
+	 */
+	@Override
+	public void mapChanged(MapDelta delta) {
+		RegionSet changed = delta.getOwnerChanged();
+		for (int id = changed.first(); id >= 0; id = changed.next(id + 1))
+			update(id);
+	}
+
+	@Override
+	public void mapReplaced() {
+		rebuild();
+	}
+
+	private void update(int id) {
+		boolean nowOwned = map.getState().getOwner(id) == owner;
+		if (owned[id] == nowOwned)
+			return;
+		owned[id] = nowOwned;
+		classify(id);
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+			classify(adjacency.target(k));
+	}
+
+	private void classify(int id) {
+		edges.remove(id);
+		inner.remove(id);
+		if (!owned[id])
+			return;
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+			if (!owned[adjacency.target(k)]) {
+				edges.add(id);
+				return;
+			}
+		inner.add(id);
+	}
+
+	/**
+	 * @return True if the Region is owned by the player and has a neighbor
+	 *         that isn't
+	 */
+	public boolean isEdge(int id) {
+		return edges.contains(id);
+	}
+
+	/**
+	 * @return True if the Region and all its neighbors are owned by the
+	 *         player
+	 */
+	public boolean isInner(int id) {
+		return inner.contains(id);
+	}
+
+	public RegionSet getEdges() {
+		return edges;
+	}
+
+	public RegionSet getInner() {
+		return inner;
+	}
+
+}
@@ -0,0 +1,127 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders A priority queue of ids (of Regions, SuperRegions...)
+ *         with long keys, smallest key first, kept in two primitive arrays.
+ *         The ids added before the first peek or poll are built into a heap
+ *         with one heapify, so taking the first few of many ids costs little
+ *         more than adding them; ids added later are sifted in one by one.
+ *         Meant to be cleared and reused.
+ */
+public class IdQueue {
+
+	private int[] ids;
+	private long[] keys;
+	private int size;
+	private boolean heap;
+
+	public IdQueue(int capacity) {
+		ids = new int[Math.max(1, capacity)];
+		keys = new long[ids.length];
+	}
+
+	public void clear() {
+		size = 0;
+		heap = false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an id; the same id can be added more than once
+	 */
+	public void add(int id, long key) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, 2 * size);
+			keys = Arrays.copyOf(keys, 2 * size);
+		}
+		ids[size] = id;
+		keys[size] = key;
+		size++;
+		if (heap)
+			siftUp(size - 1);
+	}
+
+	/**
+	 * @return The smallest key
+	 */
+	public long peekKey() {
+		heapify();
+		return keys[0];
+	}
+
+	/**
+	 * @return The id with the smallest key, without removing it
+	 */
+	public int peek() {
+		heapify();
+		return ids[0];
+	}
+
+	/**
+	 * @return The id with the smallest key, which is removed
+	 */
+	public int poll() {
+		heapify();
+		int id = ids[0];
+		size--;
+		if (size > 0) {
+			ids[0] = ids[size];
+			keys[0] = keys[size];
+			siftDown(0);
+		}
+		return id;
+	}
+
+	private void heapify() {
+		if (size == 0)
+			throw new IllegalStateException("empty queue");
+		if (heap)
+			return;
+		for (int i = (size >>> 1) - 1; i >= 0; i--)
+			siftDown(i);
+		heap = true;
+	}
+
+	private void siftUp(int i) {
+		int id = ids[i];
+		long key = keys[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key)
+				break;
+			ids[i] = ids[parent];
+			keys[i] = keys[parent];
+			i = parent;
+		}
+		ids[i] = id;
+		keys[i] = key;
+	}
+
+	private void siftDown(int i) {
+		int id = ids[i];
+		long key = keys[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child])
+				child++;
+			if (keys[child] >= key)
+				break;
+			ids[i] = ids[child];
+			keys[i] = keys[child];
+			i = child;
+		}
+		ids[i] = id;
+		keys[i] = key;
+	}
+
+}
@@ -10,6 +10,8 @@
 
 package map;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 public class Map {
@@ -17,16 +19,219 @@ public class Map {
 	public LinkedList<Region> regions;
 	public LinkedList<SuperRegion> superRegions;
 	
+	// id-indexed lookup tables, kept in sync with the lists above
+	private Region[] regionIndex;
+	private SuperRegion[] superRegionIndex;
+	
+	// the map that owns the Regions listed here; this map itself unless it is a view
+	private final Map topology;
+	
+	// owner and armies of every Region, read by the Regions of the topology
+	private MapState state;
+	
+	// the name of the player behind every Owner code
+	private String[] playerNames;
+	
+	// the edges added so far, compressed into the adjacency when it is needed
+	private int[] edgeFrom;
+	private int[] edgeTo;
+	private int edgeCount;
+	private Adjacency adjacency;
+	
+	// predicts the opponent's attacks on our Regions, null to expect every army around them
+	private AttackEstimate attackEstimate;
+	
 	public Map()
 	{
 		this.regions = new LinkedList<Region>();
 		this.superRegions = new LinkedList<SuperRegion>();
+		this.regionIndex = new Region[0];
+		this.superRegionIndex = new SuperRegion[0];
+		this.topology = this;
+		this.state = new MapState(0);
+		this.edgeFrom = new int[16];
+		this.edgeTo = new int[16];
+		this.playerNames = new String[Owner.COUNT];
+		this.playerNames[Owner.UNKNOWN] = "unknown";
+		this.playerNames[Owner.NEUTRAL] = "neutral";
+		this.playerNames[Owner.ME] = "";
+		this.playerNames[Owner.OPPONENT] = "";
 	}
 	
 	public Map(LinkedList<Region> regions, LinkedList<SuperRegion> superRegions)
 	{
+		this();
 		this.regions = regions;
 		this.superRegions = superRegions;
+		for(Region region : regions)
+			index(region);
+		for(SuperRegion superRegion : superRegions)
+			index(superRegion);
+	}
+	
+	/**
+	 * A view lists a subset of the Regions of another map, sharing its Regions and state
+	 * @param topology : the map the view is built on
+	 */
+	private Map(Map topology)
+	{
+		this.regions = new LinkedList<Region>();
+		this.superRegions = topology.superRegions;
+		this.regionIndex = new Region[topology.regionIndex.length];
+		this.topology = topology;
+	}
+	
+	/**
+	 * @return : a new, empty map sharing the Regions, SuperRegions and state of this one.
+	 * Regions added to it keep reading their owner and armies from this map.
+	 */
+	public Map createView()
+	{
+		return new Map(topology);
+	}
+	
+	/**
+	 * Sets the names the Owner codes ME and OPPONENT stand for
+	 * @param myName : the name of our bot
+	 * @param opponentName : the name of the opponent's bot
+	 */
+	public void setPlayerNames(String myName, String opponentName)
+	{
+		topology.playerNames[Owner.ME] = myName;
+		topology.playerNames[Owner.OPPONENT] = opponentName;
+	}
+	
+	/**
+	 * @param playerName : a player's name, "neutral" or "unknown"
+	 * @return : the Owner code of that player; UNKNOWN if the name isn't known
+	 */
+	public byte getOwner(String playerName)
+	{
+		String[] names = topology.playerNames;
+		for(byte owner = Owner.ME; owner < Owner.COUNT; owner++)
+			if(names[owner] == playerName)
+				return owner;
+		for(byte owner = 0; owner < Owner.COUNT; owner++)
+			if(names[owner].equals(playerName))
+				return owner;
+		return Owner.UNKNOWN;
+	}
+	
+	/**
+	 * @param owner : an Owner code
+	 * @return : the name of the player behind it
+	 */
+	public String getPlayerName(byte owner)
+	{
+		return topology.playerNames[owner];
+	}
+	
+	/**
+	 * Records that two Regions of this map are neighbors. Called by Region.addNeighbor.
+	 * @param id : a Region id
+	 * @param otherId : the id of its neighbor
+	 */
+	void addEdge(int id, int otherId)
+	{
+		if(topology != this)
+		{
+			topology.addEdge(id, otherId);
+			return;
+		}
+		if(edgeCount == edgeFrom.length)
+		{
+			edgeFrom = Arrays.copyOf(edgeFrom, 2 * edgeCount);
+			edgeTo = Arrays.copyOf(edgeTo, 2 * edgeCount);
+		}
+		edgeFrom[edgeCount] = id;
+		edgeTo[edgeCount] = otherId;
+		edgeCount++;
+		adjacency = null;
+	}
+	
+	/**
+	 * @return : the neighbors of all the Regions of the topology, built the first time
+	 * it is needed after neighbors were added
+	 */
+	public Adjacency getAdjacency()
+	{
+		if(topology != this)
+			return topology.getAdjacency();
+		if(adjacency == null)
+		{
+			adjacency = Adjacency.build(regionIndex.length, edgeFrom, edgeTo, edgeCount);
+			for(Region region : regions)
+				region.setNeighbors(adjacency);
+		}
+		return adjacency;
+	}
+	
+	/**
+	 * @return : what predicts the opponent's attacks on the Regions of this map, null if
+	 * every enemy army around a Region is expected to attack it
+	 */
+	public AttackEstimate getAttackEstimate()
+	{
+		return topology.attackEstimate;
+	}
+	
+	/**
+	 * @param attackEstimate : what predicts the opponent's attacks from now on, null to
+	 * expect every enemy army around a Region to attack it
+	 */
+	public void setAttackEstimate(AttackEstimate attackEstimate)
+	{
+		topology.attackEstimate = attackEstimate;
+	}
+	
+	/**
+	 * @return : the owner and armies of the Regions of this map
+	 */
+	public MapState getState()
+	{
+		return topology.state;
+	}
+	
+	/**
+	 * Replaces the owner and armies of all the Regions of this map, e.g. with a copy
+	 * made for searching. The new state must be big enough for all Region ids.
+	 * @param state : the new state
+	 */
+	public void setState(MapState state)
+	{
+		if(state.size() < topology.regionIndex.length)
+			throw new IllegalArgumentException("MapState is too small for this map");
+		if(!state.countsOwners())
+			for(Region region : topology.regions)
+				state.setSuperRegion(region.getId(), region.getSuperRegion().getId());
+		topology.state = state;
+	}
+	
+	/**
+	 * Makes sure Regions with ids up to maxId can be indexed without growing the table
+	 * @param maxId : the biggest Region id that will be added
+	 */
+	public void ensureRegionCapacity(int maxId)
+	{
+		if(maxId >= regionIndex.length)
+			regionIndex = Arrays.copyOf(regionIndex, maxId + 1);
+		if(topology == this)
+			state.ensureCapacity(regionIndex.length);
+	}
+	
+	/**
+	 * Makes sure SuperRegions with ids up to maxId can be indexed without growing the table
+	 * @param maxId : the biggest SuperRegion id that will be added
+	 */
+	public void ensureSuperRegionCapacity(int maxId)
+	{
+		if(topology != this)
+		{
+			topology.ensureSuperRegionCapacity(maxId);
+			return;
+		}
+		if(maxId >= superRegionIndex.length)
+			superRegionIndex = Arrays.copyOf(superRegionIndex, maxId + 1);
 	}
 
 	/**
@@ -35,13 +240,17 @@ public class Map {
 	 */
 	public void add(Region region)
 	{
-		for(Region r : regions)
-			if(r.getId() == region.getId())
-			{
-				System.err.println("Region cannot be added: id already exists.");
-				return;
-			}
+		if(getRegion(region.getId()) != null)
+		{
+			System.err.println("Region cannot be added: id already exists.");
+			return;
+		}
+		if(topology == this)
+			region.setMap(this);
+		index(region);
 		regions.add(region);
+		if(topology == this)
+			state.setSuperRegion(region.getId(), region.getSuperRegion().getId());
 	}
 	
 	/**
@@ -50,13 +259,78 @@ public class Map {
 	 */
 	public void add(SuperRegion superRegion)
 	{
-		for(SuperRegion s : superRegions)
-			if(s.getId() == superRegion.getId())
+		if(topology != this)
+		{
+			topology.add(superRegion);
+			return;
+		}
+		if(getSuperRegion(superRegion.getId()) != null)
+		{
+			System.err.println("SuperRegion cannot be added: id already exists.");
+			return;
+		}
+		superRegion.setMap(this);
+		index(superRegion);
+		superRegions.add(superRegion);
+	}
+	
+	/**
+	 * remove a Region from the map
+	 * @param region : Region to be removed
+	 */
+	public void remove(Region region)
+	{
+		if(getRegion(region.getId()) != region)
+			return;
+		regionIndex[region.getId()] = null;
+		regions.remove(region);
+	}
+	
+	/**
+	 * remove all Regions owned by given player from the map
+	 * @param playerName : the player whose Regions are removed
+	 */
+	public void removeRegionsOwnedBy(String playerName)
+	{
+		byte owner = getOwner(playerName);
+		Iterator<Region> it = regions.iterator();
+		while(it.hasNext())
+		{
+			Region region = it.next();
+			if(region.ownedBy(owner))
 			{
-				System.err.println("SuperRegion cannot be added: id already exists.");
-				return;
+				regionIndex[region.getId()] = null;
+				it.remove();
 			}
-		superRegions.add(superRegion);
+		}
+	}
+	
+	/**
+	 * remove all Regions from the map; the Regions of a view stay in its topology
+	 */
+	public void clear()
+	{
+		for(Region region : regions)
+			regionIndex[region.getId()] = null;
+		regions.clear();
+	}
+	
+	private void index(Region region)
+	{
+		int id = region.getId();
+		if(id >= regionIndex.length)
+			regionIndex = Arrays.copyOf(regionIndex, Math.max(id + 1, 2 * regionIndex.length));
+		regionIndex[id] = region;
+		if(topology == this)
+			state.ensureCapacity(regionIndex.length);
+	}
+	
+	private void index(SuperRegion superRegion)
+	{
+		int id = superRegion.getId();
+		if(id >= superRegionIndex.length)
+			superRegionIndex = Arrays.copyOf(superRegionIndex, Math.max(id + 1, 2 * superRegionIndex.length));
+		superRegionIndex[id] = superRegion;
 	}
 	
 	/**
@@ -64,6 +338,8 @@ public class Map {
 	 */
 	public Map getMapCopy() {
 		Map newMap = new Map();
+		newMap.ensureSuperRegionCapacity(topology.superRegionIndex.length - 1);
+		newMap.ensureRegionCapacity(regionIndex.length - 1);
 		for(SuperRegion sr : superRegions) //copy superRegions
 		{
 			SuperRegion newSuperRegion = new SuperRegion(sr.getId(), sr.getArmiesReward());
@@ -71,7 +347,7 @@ public class Map {
 		}
 		for(Region r : regions) //copy regions
 		{
-			Region newRegion = new Region(r.getId(), newMap.getSuperRegion(r.getSuperRegion().getId()), r.getPlayerName(), r.getArmies());
+			Region newRegion = new Region(r.getId(), newMap.getSuperRegion(r.getSuperRegion().getId()));
 			newMap.add(newRegion);
 		}
 		for(Region r : regions) //add neighbors to copied regions
@@ -80,6 +356,8 @@ public class Map {
 			for(Region neighbor : r.getNeighbors())
 				newRegion.addNeighbor(newMap.getRegion(neighbor.getId()));
 		}
+		newMap.setPlayerNames(getPlayerName(Owner.ME), getPlayerName(Owner.OPPONENT));
+		newMap.state.copyFrom(getState()); //copy owners and armies
 		return newMap;
 	}
 	
@@ -103,10 +381,9 @@ public class Map {
 	 */
 	public Region getRegion(int id)
 	{
-		for(Region region : regions)
-			if(region.getId() == id)
-				return region;
-		return null;
+		if(id < 0 || id >= regionIndex.length)
+			return null;
+		return regionIndex[id];
 	}
 	
 	/**
@@ -115,20 +392,21 @@ public class Map {
 	 */
 	public SuperRegion getSuperRegion(int id)
 	{
-		for(SuperRegion superRegion : superRegions)
-			if(superRegion.getId() == id)
-				return superRegion;
-		return null;
+		if(topology != this)
+			return topology.getSuperRegion(id);
+		if(id < 0 || id >= superRegionIndex.length)
+			return null;
+		return superRegionIndex[id];
 	}
 	
 	public String getMapString()
 	{
-		String mapString = "";
+		StringBuilder mapString = new StringBuilder();
 		for(Region region : regions)
 		{
-			mapString = mapString.concat(region.getId() + ";" + region.getPlayerName() + ";" + region.getArmies() + " ");
+			mapString.append(region.getId()).append(';').append(region.getPlayerName()).append(';').append(region.getArmies()).append(' ');
 		}
-		return mapString;
+		return mapString.toString();
 	}	
 	
 }
@@ -0,0 +1,84 @@
+package map;
+
+/**
+ * @author PandaCoders What changed on the map between two updates: the
+ *         Regions that changed owner, the ones whose armies changed, and the
+ *         ones that became visible or hidden. A Region that becomes hidden
+ *         is unknown again, so it usually changed owner and armies too.
+ */
+public class MapDelta {
+
+	private final RegionSet ownerChanged;
+	private final RegionSet armiesChanged;
+	private final RegionSet shown;
+	private final RegionSet hidden;
+
+	/**
+	 * @param capacity
+	 *            the biggest Region id + 1
+	 */
+	public MapDelta(int capacity) {
+		ownerChanged = new RegionSet(capacity);
+		armiesChanged = new RegionSet(capacity);
+		shown = new RegionSet(capacity);
+		hidden = new RegionSet(capacity);
+	}
+
+	public void clear() {
+		ownerChanged.clear();
+		armiesChanged.clear();
+		shown.clear();
+		hidden.clear();
+	}
+
+	/**
+	 * @return True if nothing changed
+	 */
+	public boolean isEmpty() {
+		return ownerChanged.isEmpty() && armiesChanged.isEmpty()
+				&& shown.isEmpty() && hidden.isEmpty();
+	}
+
+	/**
+	 * Records a Region's owner and armies before and after the update; equal
+	 * ones aren't a change.
+	 */
+	public void change(int regionId, byte oldOwner, byte newOwner,
+			int oldArmies, int newArmies) {
+		if (oldOwner != newOwner)
+			ownerChanged.add(regionId);
+		if (oldArmies != newArmies)
+			armiesChanged.add(regionId);
+	}
+
+	public void show(int regionId) {
+		shown.add(regionId);
+	}
+
+	public void hide(int regionId) {
+		hidden.add(regionId);
+	}
+
+	public RegionSet getOwnerChanged() {
+		return ownerChanged;
+	}
+
+	public RegionSet getArmiesChanged() {
+		return armiesChanged;
+	}
+
+	/**
+	 * @return The Regions that weren't visible before the update and are now
+	 */
+	public RegionSet getShown() {
+		return shown;
+	}
+
+	/**
+	 * @return The Regions that were visible before the update and aren't now
+	 */
+	public RegionSet getHidden() {
+		return hidden;
+	}
+
+}
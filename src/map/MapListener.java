@@ -0,0 +1,21 @@
+package map;
+
+/**
+ * @author PandaCoders Something that keeps data derived from the owners and
+ *         armies of a map, and updates it when they change instead of
+ *         computing it again every round.
+ */
+public interface MapListener {
+
+	/**
+	 * Called after an update of the map, with what it changed.
+	 */
+	void mapChanged(MapDelta delta);
+
+	/**
+	 * Called after the whole state of the map was replaced; everything may
+	 * have changed.
+	 */
+	void mapReplaced();
+
+}
@@ -0,0 +1,219 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders The part of a Map that changes from round to round: the
+ *         owner and the armies of every Region, stored in arrays indexed by
+ *         the Region's id. The Regions and SuperRegions themselves (the
+ *         topology) are built once and read their state from here, so a
+ *         round only has to overwrite these arrays and search code can work
+ *         on cheap copies of them.
+ * 
+ *         The state of a Map also counts how many Regions of every
+ *         SuperRegion each player owns, so questions like "do I own this
+ *         SuperRegion" don't have to look at its Regions.
+ */
+public class MapState {
+
+	// the Owner code of every Region
+	private byte[] owners;
+	private int[] armies;
+	// armies that are kept especially to protect from neighboring enemies
+	private int[] armiesForDefense;
+
+	// the SuperRegion of every Region, -1 for ids without a Region; shared by
+	// the copies of a state, null if the state doesn't count owners
+	private int[] superRegionOf;
+	// how many Regions of every SuperRegion each Owner has, at
+	// superRegionId * Owner.COUNT + owner
+	private int[] ownerCounts;
+
+	public MapState(int size) {
+		owners = new byte[size];
+		armies = new int[size];
+		armiesForDefense = new int[size];
+	}
+
+	/**
+	 * @return A new MapState exactly the same as this one
+	 */
+	public MapState copy() {
+		MapState copy = new MapState(0);
+		copy.owners = owners.clone();
+		copy.armies = armies.clone();
+		copy.armiesForDefense = armiesForDefense.clone();
+		copy.superRegionOf = superRegionOf;
+		if (ownerCounts != null)
+			copy.ownerCounts = ownerCounts.clone();
+		return copy;
+	}
+
+	/**
+	 * Overwrites this state with the given one, without allocating when both
+	 * have the same size
+	 *
+	 * @param other
+	 */
+	public void copyFrom(MapState other) {
+		if (other.size() != size()) {
+			owners = new byte[other.size()];
+			armies = new int[other.size()];
+			armiesForDefense = new int[other.size()];
+		}
+		System.arraycopy(other.owners, 0, owners, 0, size());
+		System.arraycopy(other.armies, 0, armies, 0, size());
+		System.arraycopy(other.armiesForDefense, 0, armiesForDefense, 0,
+				size());
+
+		superRegionOf = other.superRegionOf;
+		if (other.ownerCounts == null)
+			ownerCounts = null;
+		else if (ownerCounts == null
+				|| ownerCounts.length != other.ownerCounts.length)
+			ownerCounts = other.ownerCounts.clone();
+		else
+			System.arraycopy(other.ownerCounts, 0, ownerCounts, 0,
+					ownerCounts.length);
+	}
+
+	/**
+	 * Forgets everything: all Regions become unknown and have no armies
+	 */
+	public void clear() {
+		Arrays.fill(owners, Owner.UNKNOWN);
+		Arrays.fill(armies, 0);
+		Arrays.fill(armiesForDefense, 0);
+		countOwners();
+	}
+
+	/**
+	 * Swaps the Regions owned by ME and OPPONENT, so the state can be seen
+	 * from the opponent's side
+	 */
+	public void swapPlayers() {
+		for (int id = 0; id < owners.length; id++)
+			if (owners[id] == Owner.ME)
+				owners[id] = Owner.OPPONENT;
+			else if (owners[id] == Owner.OPPONENT)
+				owners[id] = Owner.ME;
+
+		if (ownerCounts != null)
+			for (int i = 0; i < ownerCounts.length; i += Owner.COUNT) {
+				int mine = ownerCounts[i + Owner.ME];
+				ownerCounts[i + Owner.ME] = ownerCounts[i + Owner.OPPONENT];
+				ownerCounts[i + Owner.OPPONENT] = mine;
+			}
+	}
+
+	/**
+	 * Grows the arrays so that Region ids smaller than size can be stored
+	 *
+	 * @param size
+	 */
+	void ensureCapacity(int size) {
+		if (size <= size())
+			return;
+		owners = Arrays.copyOf(owners, size);
+		armies = Arrays.copyOf(armies, size);
+		armiesForDefense = Arrays.copyOf(armiesForDefense, size);
+		if (superRegionOf != null) {
+			int oldSize = superRegionOf.length;
+			superRegionOf = Arrays.copyOf(superRegionOf, size);
+			Arrays.fill(superRegionOf, oldSize, size, -1);
+		}
+	}
+
+	/**
+	 * Records the SuperRegion of a Region, so the owners of the Regions of
+	 * every SuperRegion are counted from now on. Called by the Map when a
+	 * Region is added to it.
+	 * 
+	 * @param regionId
+	 * @param superRegionId
+	 */
+	void setSuperRegion(int regionId, int superRegionId) {
+		if (superRegionOf == null) {
+			superRegionOf = new int[size()];
+			Arrays.fill(superRegionOf, -1);
+			ownerCounts = new int[0];
+		}
+		int needed = (superRegionId + 1) * Owner.COUNT;
+		if (ownerCounts.length < needed)
+			ownerCounts = Arrays.copyOf(ownerCounts, needed);
+
+		int old = superRegionOf[regionId];
+		if (old >= 0)
+			ownerCounts[old * Owner.COUNT + owners[regionId]]--;
+		superRegionOf[regionId] = superRegionId;
+		ownerCounts[superRegionId * Owner.COUNT + owners[regionId]]++;
+	}
+
+	// counts the owners of the Regions of every SuperRegion from scratch
+	private void countOwners() {
+		if (ownerCounts == null)
+			return;
+		Arrays.fill(ownerCounts, 0);
+		for (int id = 0; id < superRegionOf.length; id++)
+			if (superRegionOf[id] >= 0)
+				ownerCounts[superRegionOf[id] * Owner.COUNT + owners[id]]++;
+	}
+
+	/**
+	 * @return True if this state counts the owners of the Regions of every
+	 *         SuperRegion, i.e. it belongs to a Map or is a copy of such a
+	 *         state
+	 */
+	public boolean countsOwners() {
+		return ownerCounts != null;
+	}
+
+	/**
+	 * @return How many Regions of the SuperRegion the owner has; only if
+	 *         countsOwners()
+	 */
+	public int getOwnerCount(int superRegionId, byte owner) {
+		int i = superRegionId * Owner.COUNT + owner;
+		return i < ownerCounts.length ? ownerCounts[i] : 0;
+	}
+
+	/**
+	 * @return The number of Region ids this state can hold
+	 */
+	public int size() {
+		return armies.length;
+	}
+
+	/**
+	 * @return The Owner code of the Region
+	 */
+	public byte getOwner(int regionId) {
+		return owners[regionId];
+	}
+
+	public void setOwner(int regionId, byte owner) {
+		if (ownerCounts != null && superRegionOf[regionId] >= 0) {
+			int superRegion = superRegionOf[regionId] * Owner.COUNT;
+			ownerCounts[superRegion + owners[regionId]]--;
+			ownerCounts[superRegion + owner]++;
+		}
+		owners[regionId] = owner;
+	}
+
+	public int getArmies(int regionId) {
+		return armies[regionId];
+	}
+
+	public void setArmies(int regionId, int armies) {
+		this.armies[regionId] = armies;
+	}
+
+	public int getArmiesForDefense(int regionId) {
+		return armiesForDefense[regionId];
+	}
+
+	public void setArmiesForDefense(int regionId, int armiesForDefense) {
+		this.armiesForDefense[regionId] = armiesForDefense;
+	}
+
+}
@@ -0,0 +1,22 @@
+package map;
+
+/**
+ * @author PandaCoders The codes stored in a MapState for the owner of a
+ *         Region. Player names are resolved to these codes once, when the
+ *         settings are read (see Map.setPlayerNames), so ownership checks are
+ *         integer comparisons.
+ */
+public final class Owner {
+
+	public static final byte UNKNOWN = 0;
+	public static final byte NEUTRAL = 1;
+	public static final byte ME = 2;
+	public static final byte OPPONENT = 3;
+
+	// the number of different codes
+	public static final int COUNT = 4;
+
+	private Owner() {
+	}
+
+}
@@ -0,0 +1,108 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders Ranks things by a float key kept in an array indexed by
+ *         their id (or by their position in a list), without boxing and
+ *         without Comparators. Higher keys come first; equal keys are ordered
+ *         by a smaller tie value, then by a smaller id, so a ranking never
+ *         depends on the sorting algorithm.
+ */
+public class Ranking {
+
+	private float[] keys;
+	private int[] ties;
+
+	// the merge buffer of sort
+	private int[] buffer = new int[0];
+
+	/**
+	 * @param capacity
+	 *            the biggest id + 1; bigger ids can be used, but grow the
+	 *            ranking
+	 */
+	public Ranking(int capacity) {
+		keys = new float[capacity];
+		ties = new int[capacity];
+	}
+
+	public void setKey(int id, float key) {
+		setKey(id, key, 0);
+	}
+
+	/**
+	 * @param tie
+	 *            orders the ids with equal keys, smaller first
+	 */
+	public void setKey(int id, float key, int tie) {
+		if (id >= keys.length) {
+			keys = Arrays.copyOf(keys, Math.max(id + 1, 2 * keys.length));
+			ties = Arrays.copyOf(ties, keys.length);
+		}
+		keys[id] = key;
+		ties[id] = tie;
+	}
+
+	public float getKey(int id) {
+		return keys[id];
+	}
+
+	/**
+	 * @return True if id is ranked before other
+	 */
+	public boolean isBefore(int id, int other) {
+		if (keys[id] != keys[other])
+			return keys[id] > keys[other];
+		if (ties[id] != ties[other])
+			return ties[id] < ties[other];
+		return id < other;
+	}
+
+	/**
+	 * Sorts the first count ids of the array, best first.
+	 */
+	public void sort(int[] ids, int count) {
+		if (count <= 16) {
+			insertionSort(ids, 0, count);
+			return;
+		}
+		if (buffer.length < count)
+			buffer = new int[count];
+		mergeSort(ids, 0, count);
+	}
+
+	private void insertionSort(int[] ids, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			int id = ids[i];
+			int j = i - 1;
+			while (j >= from && isBefore(id, ids[j])) {
+				ids[j + 1] = ids[j];
+				j--;
+			}
+			ids[j + 1] = id;
+		}
+	}
+
+	private void mergeSort(int[] ids, int from, int to) {
+		if (to - from <= 16) {
+			insertionSort(ids, from, to);
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(ids, from, middle);
+		mergeSort(ids, middle, to);
+		if (!isBefore(ids[middle], ids[middle - 1]))
+			return;
+
+		System.arraycopy(ids, from, buffer, from, to - from);
+		int left = from, right = middle;
+		for (int i = from; i < to; i++)
+			if (right == to
+					|| (left < middle && !isBefore(buffer[right], buffer[left])))
+				ids[i] = buffer[left++];
+			else
+				ids[i] = buffer[right++];
+	}
+
+}
@@ -13,43 +13,51 @@ package map;
 import java.util.LinkedList;
 import java.util.List;
 
-import bot.BotState;
-
 public class Region extends Territory {
 
 	private LinkedList<Region> neighbors;
 	private SuperRegion superRegion;
-	private int armies;
-	// armies that are kept especially to protect from neighboring enemies
-	private int armiesForDefense;
-	private String playerName;
+	// the map this Region belongs to; its owner and armies are kept in the
+	// map's state
+	private Map map;
 
 	public Region(int id, SuperRegion superRegion) {
 		this.id = id;
 		this.superRegion = superRegion;
 		this.neighbors = new LinkedList<Region>();
-		this.playerName = "unknown";
-		this.armies = 0;
-		this.armiesForDefense = 0;
 
 		superRegion.addSubRegion(this);
 	}
 
-	public Region(int id, SuperRegion superRegion, String playerName, int armies) {
-		this.id = id;
-		this.superRegion = superRegion;
-		this.neighbors = new LinkedList<Region>();
-		this.playerName = playerName;
-		this.armies = armies;
-
-		superRegion.addSubRegion(this);
+	/**
+	 * Called by the Map when this Region is added to it
+	 * 
+	 * @param map
+	 *            the Map this Region belongs to
+	 */
+	void setMap(Map map) {
+		this.map = map;
 	}
 
+	/**
+	 * Adds a neighbor to this Region and this Region to the neighbor. Adding
+	 * the same neighbor twice has no effect.
+	 * 
+	 * @param neighbor
+	 */
 	public void addNeighbor(Region neighbor) {
-		if (!neighbors.contains(neighbor)) {
-			neighbors.add(neighbor);
-			neighbor.addNeighbor(this);
-		}
+		map.addEdge(id, neighbor.getId());
+	}
+
+	/**
+	 * Rebuilds the list of neighbors from the adjacency of the map
+	 * 
+	 * @param adjacency
+	 */
+	void setNeighbors(Adjacency adjacency) {
+		neighbors.clear();
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+			neighbors.add(map.getRegion(adjacency.target(k)));
 	}
 
 	/**
@@ -59,20 +67,16 @@ public class Region extends Territory {
 	 *         otherwise
 	 */
 	public boolean isNeighbor(Region region) {
-		if (neighbors.contains(region))
-			return true;
-		return false;
+		return map.getAdjacency().isNeighbor(id, region.getId());
 	}
 
 	/**
-	 * @param playerName
-	 *            A string with a player's name
-	 * @return True if this region is owned by given playerName, false otherwise
+	 * @param owner
+	 *            An Owner code
+	 * @return True if this region is owned by given owner, false otherwise
 	 */
-	public boolean ownedByPlayer(String playerName) {
-		if (playerName.equals(this.playerName))
-			return true;
-		return false;
+	public boolean ownedBy(byte owner) {
+		return getOwner() == owner;
 	}
 
 	/**
@@ -80,7 +84,7 @@ public class Region extends Territory {
 	 *            Sets the number of armies that are on this Region
 	 */
 	public void setArmies(int armies) {
-		this.armies = armies;
+		map.getState().setArmies(id, armies);
 	}
 
 	/**
@@ -88,7 +92,15 @@ public class Region extends Territory {
 	 *            Sets the Name of the player that this Region belongs to
 	 */
 	public void setPlayerName(String playerName) {
-		this.playerName = playerName;
+		setOwner(map.getOwner(playerName));
+	}
+
+	/**
+	 * @param owner
+	 *            Sets the Owner code of the player that this Region belongs to
+	 */
+	public void setOwner(byte owner) {
+		map.getState().setOwner(id, owner);
 	}
 
 	/**
@@ -102,9 +114,17 @@ public class Region extends Territory {
 	 * @return A list of this Region's neighboring Regions
 	 */
 	public LinkedList<Region> getNeighbors() {
+		map.getAdjacency();
 		return neighbors;
 	}
 
+	/**
+	 * @return The map this Region belongs to
+	 */
+	public Map getMap() {
+		return map;
+	}
+
 	/**
 	 * @return The SuperRegion this Region is part of
 	 */
@@ -116,22 +136,29 @@ public class Region extends Territory {
 	 * @return The number of armies on this region
 	 */
 	public int getArmies() {
-		return armies;
+		return map.getState().getArmies(id);
 	}
 
 	/**
 	 * @return A string with the name of the player that owns this region
 	 */
 	public String getPlayerName() {
-		return playerName;
+		return map.getPlayerName(getOwner());
+	}
+
+	/**
+	 * @return The Owner code of the player that owns this region
+	 */
+	public byte getOwner() {
+		return map.getState().getOwner(id);
 	}
 
 	public int getArmiesForDefense() {
-		return armiesForDefense;
+		return map.getState().getArmiesForDefense(id);
 	}
 
 	public void setArmiesForDefense(int armiesForDefense) {
-		this.armiesForDefense = armiesForDefense;
+		map.getState().setArmiesForDefense(id, armiesForDefense);
 	}
 
 	/**
@@ -140,12 +167,23 @@ public class Region extends Territory {
 	 */
 	@Override
 	public void computePriority() {
+		setPriority(getEnemyArmiesAround() - getArmies());
+	}
+
+	/**
+	 * @return The number of armies the neighboring enemies can attack this
+	 *         Region with
+	 */
+	public int getEnemyArmiesAround() {
 		int enemyArmies = 0;
-		String enemy = BotState.getOpponentPlayerNameStatic();
-		for (Region neighbor : neighbors)
-			if (neighbor.ownedByPlayer(enemy))
-				enemyArmies += neighbor.getArmies() - 1;
-		setPriority(enemyArmies - armies);
+		Adjacency adjacency = map.getAdjacency();
+		MapState state = map.getState();
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++) {
+			int neighborId = adjacency.target(k);
+			if (state.getOwner(neighborId) == Owner.OPPONENT)
+				enemyArmies += state.getArmies(neighborId) - 1;
+		}
+		return enemyArmies;
 	}
 
 	/**
@@ -153,7 +191,7 @@ public class Region extends Territory {
 	 * @return The armies that are needed in order to capture this region
 	 */
 	public int armiesNeededToCapture() {
-		return (int) Math.round(1.7 * armies);
+		return Combat.armiesNeededToCapture(getArmies());
 	}
 
 	/**
@@ -161,20 +199,24 @@ public class Region extends Territory {
 	 * @return The number of armies that this Region can kill at the moment
 	 */
 	public int armiesItCanKill() {
-		return (int) Math.round(0.6 * armies);
+		return Combat.expectedDefendersKilled(getArmies());
 	}
 
 	/**
 	 * 
 	 * @return The number of armies the Bot should add to this Region to defend
-	 *         it against all its neighboring enemies
+	 *         it against all its neighboring enemies, or against the attacks
+	 *         the map's AttackEstimate expects if it has one
 	 */
 	public int armiesNeededToDefend() {
 		// the priority is the number of armies that can attack this Region
 		// minus its own armies
 		// getPriority() + armies = number of armies that can attack this Region
-		int enemyArmies = (int) Math.abs(priority + armies);
-		return (int) (Math.round((enemyArmies * 0.6)) - armies + 1);
+		int armies = getArmies();
+		AttackEstimate estimate = map.getAttackEstimate();
+		int enemyArmies = estimate != null ? estimate.expectedAttack(this)
+				: (int) Math.abs(priority + armies);
+		return Combat.expectedDefendersKilled(enemyArmies) - armies + 1;
 	}
 
 	/**
@@ -186,18 +228,28 @@ public class Region extends Territory {
 	 */
 	public int armiesNeededToDefend(List<Region> neighbors) {
 		int enemyArmies = 0;
-		String enemy = BotState.getOpponentPlayerNameStatic();
 		for (Region neighbor : neighbors)
-			if (neighbor.ownedByPlayer(enemy))
+			if (neighbor.ownedBy(Owner.OPPONENT))
 				enemyArmies += neighbor.getArmies() - 1;
 
-		return (int) (Math.round(enemyArmies * 0.6));
+		return armiesToDefendAgainst(enemyArmies);
+	}
+
+	/**
+	 * 
+	 * @param enemyArmies
+	 *            the number of armies that can attack this Region
+	 * @return The number of armies this Region needs in oder to defend itself
+	 *         against that many attacking armies
+	 */
+	public static int armiesToDefendAgainst(int enemyArmies) {
+		return Combat.expectedDefendersKilled(enemyArmies);
 	}
 
 	public int getUnknownNeighbors() {
 		int counter = 0;
-		for (Region neighbor : neighbors) {
-			if (neighbor.ownedByPlayer("unknown") && neighbor.armies == 0)
+		for (Region neighbor : getNeighbors()) {
+			if (neighbor.ownedBy(Owner.UNKNOWN) && neighbor.getArmies() == 0)
 				counter++;
 		}
 		return counter;
@@ -211,9 +263,12 @@ public class Region extends Territory {
 	 */
 	public int getEnemyNeighbors(String enemy) {
 		int counter = 0;
+		byte owner = map.getOwner(enemy);
+		Adjacency adjacency = map.getAdjacency();
+		MapState state = map.getState();
 
-		for (Region neighbor : neighbors) {
-			if (neighbor.ownedByPlayer(enemy))
+		for (int k = adjacency.begin(id); k < adjacency.end(id); k++) {
+			if (state.getOwner(adjacency.target(k)) == owner)
 				counter++;
 		}
 		return counter;
@@ -221,9 +276,11 @@ public class Region extends Territory {
 
 	public int getNeutralNeighbors(String enemy, String me) {
 		int counter = 0;
-		for (Region neighbor : neighbors) {
-			if (!neighbor.ownedByPlayer(enemy) && !neighbor.ownedByPlayer(me)
-					&& neighbor.armies != 0)
+		byte enemyOwner = map.getOwner(enemy);
+		byte myOwner = map.getOwner(me);
+		for (Region neighbor : getNeighbors()) {
+			if (!neighbor.ownedBy(enemyOwner) && !neighbor.ownedBy(myOwner)
+					&& neighbor.getArmies() != 0)
 				counter++;
 		}
 		return counter;
@@ -235,7 +292,7 @@ public class Region extends Territory {
 	 */
 	@Override
 	public int compareTo(Territory territory) {
-		return -this.priority.compareTo(territory.priority);
+		return Float.compare(territory.priority, priority);
 	}
 
 }
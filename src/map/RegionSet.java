@@ -0,0 +1,177 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * @author PandaCoders A set of Region ids (or SuperRegion ids) stored as a
+ *         bitset: bit id of the words is set when id is in the set. Adding,
+ *         removing and looking up an id take constant time, and whole sets
+ *         are combined 64 ids at a time. The members are iterated in
+ *         ascending order:
+ *
+ *         <pre>
+ * for (int id = set.first(); id &gt;= 0; id = set.next(id + 1))
+ * 	visit(id);
+ * </pre>
+ */
+public class RegionSet {
+
+	private long[] words;
+	// the number of members, kept up to date so size() is free
+	private int size;
+
+	/**
+	 * @param capacity
+	 *            the biggest id + 1; bigger ids can be added, but grow the
+	 *            set
+	 */
+	public RegionSet(int capacity) {
+		words = new long[(capacity + 63) >>> 6];
+	}
+
+	/**
+	 * @return True if the id is in the set
+	 */
+	public boolean contains(int id) {
+		int word = id >>> 6;
+		return id >= 0 && word < words.length
+				&& (words[word] & (1L << id)) != 0;
+	}
+
+	/**
+	 * @return True if the id wasn't in the set yet
+	 */
+	public boolean add(int id) {
+		int word = id >>> 6;
+		if (word >= words.length)
+			words = Arrays.copyOf(words, Math.max(word + 1, 2 * words.length));
+		long bit = 1L << id;
+		if ((words[word] & bit) != 0)
+			return false;
+		words[word] |= bit;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return True if the id was in the set
+	 */
+	public boolean remove(int id) {
+		if (!contains(id))
+			return false;
+		words[id >>> 6] &= ~(1L << id);
+		size--;
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0);
+		size = 0;
+	}
+
+	/**
+	 * @return The number of ids in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The smallest id in the set, -1 if it is empty
+	 */
+	public int first() {
+		return next(0);
+	}
+
+	/**
+	 * @return The smallest id in the set that is at least from, -1 if there
+	 *         is none
+	 */
+	public int next(int from) {
+		int word = from >>> 6;
+		if (from < 0 || word >= words.length)
+			return -1;
+		long bits = words[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word == words.length)
+				return -1;
+			bits = words[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Makes this set the same as other
+	 */
+	public void copyFrom(RegionSet other) {
+		if (words.length < other.words.length)
+			words = new long[other.words.length];
+		System.arraycopy(other.words, 0, words, 0, other.words.length);
+		Arrays.fill(words, other.words.length, words.length, 0);
+		size = other.size;
+	}
+
+	/**
+	 * Adds all the ids of other to this set
+	 */
+	public void addAll(RegionSet other) {
+		if (words.length < other.words.length)
+			words = Arrays.copyOf(words, other.words.length);
+		size = 0;
+		for (int i = 0; i < words.length; i++) {
+			if (i < other.words.length)
+				words[i] |= other.words[i];
+			size += Long.bitCount(words[i]);
+		}
+	}
+
+	/**
+	 * Keeps only the ids that are in other too
+	 */
+	public void retainAll(RegionSet other) {
+		size = 0;
+		for (int i = 0; i < words.length; i++) {
+			words[i] &= i < other.words.length ? other.words[i] : 0;
+			size += Long.bitCount(words[i]);
+		}
+	}
+
+	/**
+	 * Removes the ids that are in other
+	 */
+	public void removeAll(RegionSet other) {
+		size = 0;
+		for (int i = 0; i < words.length; i++) {
+			if (i < other.words.length)
+				words[i] &= ~other.words[i];
+			size += Long.bitCount(words[i]);
+		}
+	}
+
+	/**
+	 * @return The number of ids that are in both sets, without building their
+	 *         intersection
+	 */
+	public int countCommon(RegionSet other) {
+		int count = 0;
+		for (int i = 0; i < words.length && i < other.words.length; i++)
+			count += Long.bitCount(words[i] & other.words[i]);
+		return count;
+	}
+
+	/**
+	 * @return The ids in ascending order, in a new array
+	 */
+	public int[] toArray() {
+		int[] ids = new int[size];
+		int count = 0;
+		for (int id = first(); id >= 0; id = next(id + 1))
+			ids[count++] = id;
+		return ids;
+	}
+
+}
@@ -12,12 +12,12 @@ package map;
 
 import java.util.LinkedList;
 
-import bot.BotState;
-
 public class SuperRegion extends Territory {
 
 	private int armiesReward;
 	private LinkedList<Region> subRegions;
+	// the map this SuperRegion belongs to, which counts who owns its Regions
+	private Map map;
 
 	public SuperRegion(int id, int armiesReward) {
 		this.id = id;
@@ -30,17 +30,49 @@ public class SuperRegion extends Territory {
 			subRegions.add(subRegion);
 	}
 
+	/**
+	 * Called by the Map when this SuperRegion is added to it
+	 * 
+	 * @param map
+	 *            the Map this SuperRegion belongs to
+	 */
+	void setMap(Map map) {
+		this.map = map;
+	}
+
 	/**
 	 * @return A string with the name of the player that fully owns this
 	 *         SuperRegion
 	 */
 	public String ownedByPlayer() {
-		String playerName = subRegions.getFirst().getPlayerName();
-		for (Region region : subRegions) {
-			if (!playerName.equals(region.getPlayerName()))
-				return null;
-		}
-		return playerName;
+		for (byte owner = 0; owner < Owner.COUNT; owner++)
+			if (ownedBy(owner))
+				return subRegions.getFirst().getPlayerName();
+		return null;
+	}
+
+	/**
+	 * @param owner
+	 *            An Owner code
+	 * @return True if all the Regions of this SuperRegion are owned by owner
+	 */
+	public boolean ownedBy(byte owner) {
+		return getRegionCount(owner) == subRegions.size();
+	}
+
+	/**
+	 * @param owner
+	 *            An Owner code
+	 * @return The number of Regions of this SuperRegion owned by owner
+	 */
+	public int getRegionCount(byte owner) {
+		if (map != null && map.getState().countsOwners())
+			return map.getState().getOwnerCount(id, owner);
+		int count = 0;
+		for (Region region : subRegions)
+			if (region.ownedBy(owner))
+				count++;
+		return count;
 	}
 
 	/**
@@ -82,11 +114,20 @@ public class SuperRegion extends Territory {
 	public int compareTo(Territory territory) {
 		if (priority == territory.priority) {
 
-			Integer thisReg = regionsNotConquered();
-			Integer otherReg = (Integer) ((SuperRegion) territory).regionsNotConquered();
-			return thisReg.compareTo(otherReg);
+			int thisReg = getTieBreak();
+			int otherReg = territory.getTieBreak();
+			return thisReg < otherReg ? -1 : (thisReg == otherReg ? 0 : 1);
 		}
-		return -this.priority.compareTo(territory.priority);
+		return Float.compare(territory.priority, priority);
+	}
+
+	/**
+	 * SuperRegions with the same priority are ordered by the number of
+	 * foreign Regions they contain, fewer first
+	 */
+	@Override
+	public int getTieBreak() {
+		return regionsNotConquered();
 	}
 
 	/**
@@ -102,13 +143,6 @@ public class SuperRegion extends Territory {
 	 * @return The number of foreign regions contained by the SuperRegion
 	 */
 	public int regionsNotConquered() {
-		int count = 0;
-		// for every region in this SuperRegion
-		// if the Region is not owned by me increment a counter
-		for (Region region : subRegions) {
-			if (!region.ownedByPlayer(BotState.getMyPlayerNameStatic()))
-				count++;
-		}
-		return count;
+		return subRegions.size() - getRegionCount(Owner.ME);
 	}
 }
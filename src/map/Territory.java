@@ -7,13 +7,20 @@ package map;
  */
 public abstract class Territory implements Comparable<Territory> {
 
-	protected Float priority;
+	protected float priority;
 	protected int id;
 
-	public Float getPriority() {
+	public float getPriority() {
 		return priority;
 	}
 
+	/**
+	 * @return What orders territories with the same priority, smaller first
+	 */
+	public int getTieBreak() {
+		return 0;
+	}
+
 	public void setPriority(float priority) {
 		this.priority = priority;
 	}
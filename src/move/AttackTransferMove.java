@@ -60,13 +60,15 @@ public class AttackTransferMove extends Move {
 	}
 	
 	/**
-	 * @return A string representation of this Move
+	 * Appends the string representation of this Move to out
 	 */
-	public String getString() {
-		if(getIllegalMove().equals(""))
-			return getPlayerName() + " attack/transfer " + fromRegion.getId() + " " + toRegion.getId() + " " + armies;
+	@Override
+	public void appendTo(StringBuilder out) {
+		if(!isIllegal())
+			out.append(getPlayerName()).append(" attack/transfer ").append(fromRegion.getId()).append(' ')
+				.append(toRegion.getId()).append(' ').append(armies);
 		else
-			return getPlayerName() + " illegal_move " + getIllegalMove();
+			super.appendTo(out);
 	}
 
 }
@@ -42,5 +42,30 @@ public class Move {
 	public String getIllegalMove() {
 		return illegalMove;
 	}
+	
+	/**
+	 * @return True if this Move was marked illegal
+	 */
+	public boolean isIllegal() {
+		return illegalMove.length() != 0;
+	}
+	
+	/**
+	 * Appends the string representation of this Move to out, so many moves can be
+	 * written into one reusable buffer
+	 * @param out the buffer to write into
+	 */
+	public void appendTo(StringBuilder out) {
+		out.append(playerName).append(" illegal_move ").append(illegalMove);
+	}
+	
+	/**
+	 * @return A string representation of this Move
+	 */
+	public String getString() {
+		StringBuilder out = new StringBuilder();
+		appendTo(out);
+		return out.toString();
+	}
 
 }
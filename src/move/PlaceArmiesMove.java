@@ -50,14 +50,14 @@ public class PlaceArmiesMove extends Move {
 	}
 	
 	/**
-	 * @return A string representation of this Move
+	 * Appends the string representation of this Move to out
 	 */
-	public String getString() {
-		if(getIllegalMove().equals(""))
-			return getPlayerName() + " place_armies " + region.getId() + " " + armies;
+	@Override
+	public void appendTo(StringBuilder out) {
+		if(!isIllegal())
+			out.append(getPlayerName()).append(" place_armies ").append(region.getId()).append(' ').append(armies);
 		else
-			return getPlayerName() + " illegal_move " + getIllegalMove();
-				
+			super.appendTo(out);
 	}
 	
 }
@@ -0,0 +1,29 @@
+package sim;
+
+import map.MapState;
+import map.Owner;
+
+/**
+ * @author PandaCoders Scores a map by the difference between the players'
+ *         incomes, regions and armies, mostly by the income.
+ */
+public class MaterialEvaluator implements StateEvaluator {
+
+	@Override
+	public double evaluate(MapState state, RoundSimulator simulator) {
+		int regions = 0, armies = 0;
+		for (int id = 0; id < state.size(); id++)
+			if (state.getOwner(id) == Owner.ME) {
+				regions++;
+				armies += state.getArmies(id);
+			} else if (state.getOwner(id) == Owner.OPPONENT) {
+				regions--;
+				armies -= state.getArmies(id);
+			}
+		int income = simulator.getIncome(state, Owner.ME)
+				- simulator.getIncome(state, Owner.OPPONENT);
+		double score = 0.5 * income + 0.2 * regions + 0.05 * armies;
+		return 1 / (1 + Math.exp(-score / 4));
+	}
+
+}
@@ -0,0 +1,121 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * @author PandaCoders The placements and attacks/transfers of one player in
+ *         one round, stored by Region id in reusable arrays.
+ */
+public class RoundMoves {
+
+	private int[] placeRegions = new int[4];
+	private int[] placeArmies = new int[4];
+	private int placeCount;
+
+	private int[] moveFrom = new int[8];
+	private int[] moveTo = new int[8];
+	private int[] moveArmies = new int[8];
+	private int moveCount;
+
+	/**
+	 * Forgets all moves, keeping the arrays
+	 */
+	public void clear() {
+		placeCount = 0;
+		moveCount = 0;
+	}
+
+	public void addPlacement(int regionId, int armies) {
+		if (placeCount == placeRegions.length) {
+			placeRegions = Arrays.copyOf(placeRegions, 2 * placeCount);
+			placeArmies = Arrays.copyOf(placeArmies, 2 * placeCount);
+		}
+		placeRegions[placeCount] = regionId;
+		placeArmies[placeCount++] = armies;
+	}
+
+	public void addMove(int fromId, int toId, int armies) {
+		if (moveCount == moveFrom.length) {
+			moveFrom = Arrays.copyOf(moveFrom, 2 * moveCount);
+			moveTo = Arrays.copyOf(moveTo, 2 * moveCount);
+			moveArmies = Arrays.copyOf(moveArmies, 2 * moveCount);
+		}
+		moveFrom[moveCount] = fromId;
+		moveTo[moveCount] = toId;
+		moveArmies[moveCount++] = armies;
+	}
+
+	public void addPlacements(List<PlaceArmiesMove> moves) {
+		for (PlaceArmiesMove move : moves)
+			addPlacement(move.getRegion().getId(), move.getArmies());
+	}
+
+	public void addMoves(List<AttackTransferMove> moves) {
+		for (AttackTransferMove move : moves)
+			addMove(move.getFromRegion().getId(), move.getToRegion().getId(),
+					move.getArmies());
+	}
+
+	/**
+	 * Replaces the moves with the ones of other
+	 * 
+	 * @param other
+	 */
+	public void copyFrom(RoundMoves other) {
+		clear();
+		for (int i = 0; i < other.placeCount; i++)
+			addPlacement(other.placeRegions[i], other.placeArmies[i]);
+		for (int i = 0; i < other.moveCount; i++)
+			addMove(other.moveFrom[i], other.moveTo[i], other.moveArmies[i]);
+	}
+
+	public int getPlaceCount() {
+		return placeCount;
+	}
+
+	public int getPlaceRegion(int i) {
+		return placeRegions[i];
+	}
+
+	public int getPlaceArmies(int i) {
+		return placeArmies[i];
+	}
+
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	public int getMoveFrom(int i) {
+		return moveFrom[i];
+	}
+
+	public int getMoveTo(int i) {
+		return moveTo[i];
+	}
+
+	public int getMoveArmies(int i) {
+		return moveArmies[i];
+	}
+
+	/**
+	 * @return True if both contain the same moves in the same order
+	 */
+	public boolean sameAs(RoundMoves other) {
+		if (placeCount != other.placeCount || moveCount != other.moveCount)
+			return false;
+		for (int i = 0; i < placeCount; i++)
+			if (placeRegions[i] != other.placeRegions[i]
+					|| placeArmies[i] != other.placeArmies[i])
+				return false;
+		for (int i = 0; i < moveCount; i++)
+			if (moveFrom[i] != other.moveFrom[i] || moveTo[i] != other.moveTo[i]
+					|| moveArmies[i] != other.moveArmies[i])
+				return false;
+		return true;
+	}
+
+}
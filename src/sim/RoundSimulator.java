@@ -0,0 +1,266 @@
+package sim;
+
+import java.util.Arrays;
+import java.util.List;
+
+import map.Adjacency;
+import map.Combat;
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Region;
+import move.AttackTransferMove;
+import move.PlaceArmiesMove;
+
+/**
+ * @author PandaCoders Plays a round of Warlight on a MapState: first both
+ *         players' placements, then their attacks and transfers, taking turns
+ *         move by move the way the engine does. Armies that arrive in a region
+ *         can't move again in the same round.
+ * 
+ *         In the EXPECTED mode every battle has its average result; in the
+ *         STOCHASTIC mode every army rolls its own chance, drawn from a seeded
+ *         generator so games can be replayed. Simulating a round allocates
+ *         nothing, so it can run as often as searches need.
+ */
+public class RoundSimulator {
+
+	public enum Mode {
+		EXPECTED, STOCHASTIC
+	}
+
+	// the armies every player gets besides the SuperRegion bonuses
+	public static final int BASE_INCOME = 5;
+
+	private final Adjacency adjacency;
+
+	// the SuperRegion of every Region, -1 for ids without a Region
+	private final int[] superRegionOf;
+	private final int[] rewards;
+	private final int[] superRegionSize;
+	private final int[] ownedCount;
+
+	// armies that can still move this round, by Region id
+	private int[] movable;
+
+	// buffers for the rounds given as lists of moves
+	private final RoundMoves myMoves = new RoundMoves();
+	private final RoundMoves opponentMoves = new RoundMoves();
+
+	private Mode mode = Mode.EXPECTED;
+	private long random = 1;
+
+	/**
+	 * @param map
+	 *            a map whose topology is complete
+	 */
+	public RoundSimulator(Map map) {
+		adjacency = map.getAdjacency();
+		int size = adjacency.size();
+		movable = new int[size];
+		superRegionOf = new int[size];
+		Arrays.fill(superRegionOf, -1);
+
+		int superRegionCount = 0;
+		for (Region region : map.getRegions())
+			superRegionCount = Math.max(superRegionCount, region
+					.getSuperRegion().getId() + 1);
+		rewards = new int[superRegionCount];
+		superRegionSize = new int[superRegionCount];
+		ownedCount = new int[superRegionCount];
+		for (Region region : map.getRegions()) {
+			int superRegionId = region.getSuperRegion().getId();
+			superRegionOf[region.getId()] = superRegionId;
+			rewards[superRegionId] = region.getSuperRegion().getArmiesReward();
+			superRegionSize[superRegionId]++;
+		}
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Restarts the random generator of the STOCHASTIC mode
+	 * 
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		// xorshift can't start from 0
+		random = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+	}
+
+	/**
+	 * Plays a round given as the players' lists of moves.
+	 * 
+	 * @param state
+	 *            the state at the start of the round; it isn't changed
+	 * @return The state at the end of the round
+	 */
+	public MapState next(MapState state, List<PlaceArmiesMove> myPlacements,
+			List<AttackTransferMove> myAttacks,
+			List<PlaceArmiesMove> opponentPlacements,
+			List<AttackTransferMove> opponentAttacks) {
+		myMoves.clear();
+		myMoves.addPlacements(myPlacements);
+		myMoves.addMoves(myAttacks);
+		opponentMoves.clear();
+		opponentMoves.addPlacements(opponentPlacements);
+		opponentMoves.addMoves(opponentAttacks);
+
+		MapState next = state.copy();
+		simulate(next, myMoves, opponentMoves);
+		return next;
+	}
+
+	/**
+	 * Plays a round on the given state.
+	 * 
+	 * @param state
+	 *            the state at the start of the round, changed into the state
+	 *            at its end
+	 * @param mine
+	 *            the moves of the player owning the Owner.ME regions
+	 * @param theirs
+	 *            the moves of the player owning the Owner.OPPONENT regions
+	 */
+	public void simulate(MapState state, RoundMoves mine, RoundMoves theirs) {
+		place(state, mine, Owner.ME);
+		place(state, theirs, Owner.OPPONENT);
+
+		int size = state.size();
+		if (movable.length < size)
+			movable = new int[size];
+		for (int id = 0; id < size; id++)
+			movable[id] = state.getArmies(id) - 1;
+
+		// the engine picks who moves first
+		boolean meFirst = mode == Mode.EXPECTED || nextDouble() < 0.5;
+		RoundMoves first = meFirst ? mine : theirs;
+		RoundMoves second = meFirst ? theirs : mine;
+		byte firstOwner = meFirst ? Owner.ME : Owner.OPPONENT;
+		byte secondOwner = meFirst ? Owner.OPPONENT : Owner.ME;
+
+		int moves = Math.max(first.getMoveCount(), second.getMoveCount());
+		for (int i = 0; i < moves; i++) {
+			if (i < first.getMoveCount())
+				move(state, firstOwner, first.getMoveFrom(i),
+						first.getMoveTo(i), first.getMoveArmies(i));
+			if (i < second.getMoveCount())
+				move(state, secondOwner, second.getMoveFrom(i),
+						second.getMoveTo(i), second.getMoveArmies(i));
+		}
+	}
+
+	private static void place(MapState state, RoundMoves moves, byte owner) {
+		for (int i = 0; i < moves.getPlaceCount(); i++) {
+			int id = moves.getPlaceRegion(i);
+			if (state.getOwner(id) == owner)
+				state.setArmies(id, state.getArmies(id) + moves.getPlaceArmies(i));
+		}
+	}
+
+	private void move(MapState state, byte owner, int from, int to, int armies) {
+		if (state.getOwner(from) != owner || !adjacency.isNeighbor(from, to))
+			return;
+		// armies killed defending the region this round can't move any more
+		armies = Math.min(armies,
+				Math.min(movable[from], state.getArmies(from) - 1));
+		if (armies <= 0)
+			return;
+		movable[from] -= armies;
+
+		if (state.getOwner(to) == owner) { // transfer
+			state.setArmies(from, state.getArmies(from) - armies);
+			state.setArmies(to, state.getArmies(to) + armies);
+			return;
+		}
+
+		int defenders = state.getArmies(to);
+		int defendersKilled, attackersKilled;
+		if (mode == Mode.EXPECTED) {
+			defendersKilled = Combat.expectedDefendersKilled(armies);
+			attackersKilled = Combat.expectedAttackersKilled(defenders);
+		} else {
+			defendersKilled = roll(armies, Combat.OFFENSIVE_KILL_RATE);
+			attackersKilled = roll(defenders, Combat.DEFENSIVE_KILL_RATE);
+		}
+
+		if (attackersKilled >= armies) {
+			// the attack failed; the region is never left empty
+			state.setArmies(from, state.getArmies(from) - armies);
+			state.setArmies(to, Math.max(1, defenders - defendersKilled));
+		} else if (defendersKilled >= defenders) {
+			// the region is captured by the surviving attackers
+			state.setArmies(from, state.getArmies(from) - armies);
+			state.setOwner(to, owner);
+			state.setArmies(to, armies - attackersKilled);
+			// the conquerors and the dead defenders can't move on this round
+			movable[to] = 0;
+		} else {
+			state.setArmies(from, state.getArmies(from) - attackersKilled);
+			state.setArmies(to, defenders - defendersKilled);
+		}
+	}
+
+	/**
+	 * @return How many of the armies succeed, each with the given chance
+	 */
+	private int roll(int armies, double chance) {
+		int successes = 0;
+		for (int i = 0; i < armies; i++)
+			if (nextDouble() < chance)
+				successes++;
+		return successes;
+	}
+
+	// xorshift64, uniform in [0, 1)
+	private double nextDouble() {
+		random ^= random << 13;
+		random ^= random >>> 7;
+		random ^= random << 17;
+		return (random >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return The armies the owner gets to place in the next round
+	 */
+	public int getIncome(MapState state, byte owner) {
+		if (state.countsOwners()) {
+			int income = BASE_INCOME;
+			for (int superRegionId = 0; superRegionId < rewards.length; superRegionId++)
+				if (superRegionSize[superRegionId] > 0
+						&& state.getOwnerCount(superRegionId, owner) == superRegionSize[superRegionId])
+					income += rewards[superRegionId];
+			return income;
+		}
+
+		Arrays.fill(ownedCount, 0);
+		for (int id = 0; id < superRegionOf.length; id++)
+			if (superRegionOf[id] >= 0 && state.getOwner(id) == owner)
+				ownedCount[superRegionOf[id]]++;
+		int income = BASE_INCOME;
+		for (int superRegionId = 0; superRegionId < ownedCount.length; superRegionId++)
+			if (superRegionSize[superRegionId] > 0
+					&& ownedCount[superRegionId] == superRegionSize[superRegionId])
+				income += rewards[superRegionId];
+		return income;
+	}
+
+	/**
+	 * @return True if the owner has a region with a neighbor he doesn't own
+	 */
+	public boolean hasEdge(MapState state, byte owner) {
+		for (int id = 0; id < superRegionOf.length; id++)
+			if (state.getOwner(id) == owner)
+				for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+					if (state.getOwner(adjacency.target(k)) != owner)
+						return true;
+		return false;
+	}
+
+}
@@ -0,0 +1,21 @@
+package sim;
+
+import map.MapState;
+
+/**
+ * @author PandaCoders Scores a map for the player owning the Owner.ME
+ *         regions. Evaluators are shared by the threads of a search, so they
+ *         must not keep any state of their own.
+ */
+public interface StateEvaluator {
+
+	/**
+	 * @param state
+	 *            the state to score; it must not be changed
+	 * @param simulator
+	 *            a simulator of the map, owned by the calling thread
+	 * @return How good the state is for us, between 0 and 1
+	 */
+	public double evaluate(MapState state, RoundSimulator simulator);
+
+}
@@ -0,0 +1,160 @@
+package bot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Checks that the CommandReader splits the engine's
+ *         commands into the tokens a String split would give.
+ */
+public class CommandReaderTest {
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	@Test
+	public void readsTokensLineByLine() throws IOException {
+		CommandReader reader = reader("settings your_bot player1\nupdate_map 1 player1 2\n");
+		assertTrue(reader.nextLine());
+		assertTrue(reader.nextToken());
+		assertTrue(reader.tokenEquals("settings"));
+		assertTrue(reader.nextToken());
+		assertEquals("your_bot", reader.tokenAsString());
+		assertTrue(reader.nextToken());
+		assertTrue(reader.tokenEquals("player1"));
+		assertFalse(reader.hasMoreTokens());
+		assertFalse(reader.nextToken());
+
+		assertTrue(reader.nextLine());
+		assertTrue(reader.nextToken());
+		assertTrue(reader.tokenEquals("update_map"));
+		assertEquals(1, reader.readInt());
+		assertTrue(reader.nextToken());
+		assertEquals(2, reader.readInt());
+		assertFalse(reader.hasMoreTokens());
+		assertFalse(reader.nextLine());
+	}
+
+	@Test
+	public void splitsListsOnCommas() throws IOException {
+		CommandReader reader = reader("setup_map neighbors 1 2,3,4 2 3\n");
+		reader.nextLine();
+		reader.nextToken();
+		reader.nextToken();
+		assertEquals(1, reader.readInt());
+		assertFalse(reader.followedByComma());
+		assertEquals(2, reader.readInt());
+		assertTrue(reader.followedByComma());
+		assertEquals(3, reader.readInt());
+		assertTrue(reader.followedByComma());
+		assertEquals(4, reader.readInt());
+		assertFalse(reader.followedByComma());
+		assertEquals(2, reader.readInt());
+		assertEquals(3, reader.readInt());
+		assertFalse(reader.hasMoreTokens());
+	}
+
+	@Test
+	public void skipsBlanksCarriageReturnsAndEmptyLines() throws IOException {
+		CommandReader reader = reader("\n\r\n  go \t place_armies  2000 \r\n\n\ngo attack/transfer 10");
+		assertTrue(reader.nextLine());
+		reader.nextToken();
+		assertTrue(reader.tokenEquals("go"));
+		reader.nextToken();
+		assertTrue(reader.tokenEquals("place_armies"));
+		assertEquals(2000L, reader.readLong());
+		assertFalse(reader.hasMoreTokens());
+
+		assertTrue(reader.nextLine());
+		reader.nextToken();
+		reader.nextToken();
+		assertTrue(reader.tokenEquals("attack/transfer"));
+		assertEquals(10, reader.readInt());
+		assertFalse(reader.nextLine());
+	}
+
+	@Test
+	public void skipsTheRestOfALine() throws IOException {
+		CommandReader reader = reader("unknown command with tokens\nsettings timebank 10000\n");
+		reader.nextLine();
+		reader.nextToken();
+		assertTrue(reader.nextLine());
+		reader.nextToken();
+		assertTrue(reader.tokenEquals("settings"));
+	}
+
+	@Test
+	public void parsesNegativeNumbersAndRejectsWords() throws IOException {
+		CommandReader reader = reader("-12 abc -\n");
+		reader.nextLine();
+		assertEquals(-12, reader.readInt());
+		assertNumberFormatException(reader);
+		assertNumberFormatException(reader);
+	}
+
+	@Test
+	public void growsTheTokenBufferAndReadsAcrossInputChunks()
+			throws IOException {
+		StringBuilder longToken = new StringBuilder();
+		for (int i = 0; i < 300; i++)
+			longToken.append((char) ('a' + i % 26));
+		String input = "opponent_moves " + longToken + " 7\n";
+		CommandReader reader = new CommandReader(oneByteAtATime(input));
+		assertTrue(reader.nextLine());
+		reader.nextToken();
+		assertTrue(reader.tokenEquals("opponent_moves"));
+		reader.nextToken();
+		assertEquals(longToken.toString(), reader.tokenAsString());
+		assertEquals(7, reader.readInt());
+		assertFalse(reader.nextLine());
+	}
+
+	@Test
+	public void emptyInputHasNoLines() throws IOException {
+		assertFalse(reader("").nextLine());
+		assertFalse(reader("\n \n").nextLine());
+	}
+
+	private static void assertNumberFormatException(CommandReader reader)
+			throws IOException {
+		try {
+			reader.readInt();
+		} catch (NumberFormatException e) {
+			return;
+		}
+		throw new AssertionError("expected a NumberFormatException");
+	}
+
+	private static CommandReader reader(String input) {
+		return new CommandReader(new ByteArrayInputStream(input.getBytes(ASCII)));
+	}
+
+	// an input that hands out a single byte per read
+	private static InputStream oneByteAtATime(String input) {
+		final byte[] bytes = input.getBytes(ASCII);
+		return new InputStream() {
+			private int position;
+
+			@Override
+			public int read() {
+				return position < bytes.length ? bytes[position++] : -1;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) {
+				if (position == bytes.length)
+					return -1;
+				buffer[offset] = bytes[position++];
+				return 1;
+			}
+		};
+	}
+
+}
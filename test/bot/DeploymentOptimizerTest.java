@@ -0,0 +1,172 @@
+package bot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import map.Map;
+import map.Owner;
+import map.Region;
+import map.RegionSet;
+import map.SuperRegion;
+import move.AttackTransferMove;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Checks the allocations of the DeploymentOptimizer
+ *         against a brute force search over small random value tables, and
+ *         on small maps with planned attacks and armies of no value.
+ */
+public class DeploymentOptimizerTest {
+
+	private static final int TABLES = 2000;
+
+	@Test
+	public void exactAllocationIsOptimal() {
+		Random random = new Random(1);
+		for (int t = 0; t < TABLES; t++) {
+			int armies = random.nextInt(8);
+			int[][] values = randomTable(random, 1 + random.nextInt(4), armies);
+			int[] allocation = DeploymentOptimizer.solveExactly(values, armies);
+			assertTrue(placed(allocation) <= armies);
+			assertEquals(best(values, 0, armies), worth(values, allocation));
+		}
+	}
+
+	@Test
+	public void greedyAllocationStaysWithinTheArmiesAndCloseToOptimal() {
+		Random random = new Random(2);
+		DeploymentOptimizer optimizer = new DeploymentOptimizer(null);
+		long greedy = 0, optimal = 0;
+		for (int t = 0; t < TABLES; t++) {
+			int armies = random.nextInt(8);
+			int[][] values = randomTable(random, 1 + random.nextInt(4), armies);
+			int[] allocation = optimizer.solveGreedily(values, armies);
+			assertTrue(placed(allocation) <= armies);
+			int best = best(values, 0, armies);
+			assertTrue(worth(values, allocation) <= best);
+			greedy += worth(values, allocation);
+			optimal += best;
+		}
+		assertTrue(greedy >= 0.95 * optimal);
+	}
+
+	@Test
+	public void greedyAllocationIsOptimalForConcaveValues() {
+		int[][] values = { { 0, 5, 9, 12, 14 }, { 0, 4, 8, 11, 13 },
+				{ 0, 6, 7, 7, 7 } };
+		int[] allocation = new DeploymentOptimizer(null).solveGreedily(values,
+				4);
+		assertEquals(best(values, 0, 4), worth(values, allocation));
+	}
+
+	@Test
+	public void plannedAttacksAreNotCountedTwice() {
+		Map map = new Map();
+		for (int id = 0; id < 3; id++)
+			map.add(new SuperRegion(id, 1));
+		Region from = addRegion(map, 0, 0, Owner.ME, 6);
+		Region attacked = addRegion(map, 1, 0, Owner.NEUTRAL, 3);
+		Region wantedTarget = addRegion(map, 2, 1, Owner.NEUTRAL, 2);
+		Region other = addRegion(map, 3, 0, Owner.ME, 1);
+		Region otherTarget = addRegion(map, 4, 2, Owner.NEUTRAL, 2);
+		from.addNeighbor(attacked);
+		from.addNeighbor(wantedTarget);
+		other.addNeighbor(otherTarget);
+
+		// planned the way BotState.addAttackTransferMove does it: the
+		// attacking armies leave the Region they start from
+		AttackTransferMove move = new AttackTransferMove("me", from, attacked,
+				5);
+		from.setArmies(from.getArmies() - move.getArmies());
+		RegionSet funded = new RegionSet(5);
+		funded.add(attacked.getId());
+		from.computePriority();
+		other.computePriority();
+
+		// the one army left and 3 more capture the wanted Region
+		RegionSet wanted = new RegionSet(3);
+		wanted.add(1);
+		int[] allocation = new DeploymentOptimizer(map).allocate(
+				regions(from, other), 3, wanted, funded, new RegionSet(5));
+		assertEquals(3, allocation[0]);
+		assertEquals(0, allocation[1]);
+	}
+
+	@Test
+	public void armiesOfNoValueGoToTheRegionInMostDanger() {
+		Map map = new Map();
+		map.add(new SuperRegion(0, 1));
+		Region safe = addRegion(map, 0, 0, Owner.ME, 1);
+		Region threatened = addRegion(map, 1, 0, Owner.ME, 1);
+		Region enemy = addRegion(map, 2, 0, Owner.OPPONENT, 20);
+		safe.addNeighbor(threatened);
+		threatened.addNeighbor(enemy);
+		safe.computePriority();
+		threatened.computePriority();
+
+		int[] allocation = new DeploymentOptimizer(map).allocate(
+				regions(safe, threatened), 2, new RegionSet(1), new RegionSet(3),
+				new RegionSet(3));
+		assertEquals(0, allocation[0]);
+		assertEquals(2, allocation[1]);
+	}
+
+	private static Region addRegion(Map map, int id, int superRegionId,
+			byte owner, int armies) {
+		Region region = new Region(id, map.getSuperRegion(superRegionId));
+		map.add(region);
+		region.setOwner(owner);
+		region.setArmies(armies);
+		return region;
+	}
+
+	private static List<Region> regions(Region... regions) {
+		List<Region> list = new ArrayList<Region>();
+		for (Region region : regions)
+			list.add(region);
+		return list;
+	}
+
+	// non-decreasing values with random steps, as the Regions' are
+	private static int[][] randomTable(Random random, int count, int armies) {
+		int[][] values = new int[count][armies + 1];
+		for (int i = 0; i < count; i++) {
+			int value = 0;
+			for (int k = 0; k <= armies; k++) {
+				if (random.nextInt(3) == 0)
+					value += random.nextInt(4);
+				values[i][k] = value;
+			}
+		}
+		return values;
+	}
+
+	private static int best(int[][] values, int i, int armies) {
+		if (i == values.length)
+			return 0;
+		int best = 0;
+		for (int k = 0; k <= armies; k++)
+			best = Math.max(best, values[i][k] + best(values, i + 1, armies - k));
+		return best;
+	}
+
+	private static int worth(int[][] values, int[] allocation) {
+		int worth = 0;
+		for (int i = 0; i < allocation.length; i++)
+			worth += values[i][allocation[i]];
+		return worth;
+	}
+
+	private static int placed(int[] allocation) {
+		int placed = 0;
+		for (int armies : allocation)
+			placed += armies;
+		return placed;
+	}
+
+}
@@ -0,0 +1,73 @@
+package map;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Shows and hides the Regions of a small map and checks
+ *         what the FogBelief fills in for the hidden ones.
+ */
+public class FogBeliefTest {
+
+	@Test
+	public void keepsWhatWasLastSeen() {
+		Map map = createMap();
+		FogBelief belief = new FogBelief(map);
+		MapDelta delta = new MapDelta(3);
+
+		update(map, belief, delta, 1, Owner.NEUTRAL, 2);
+		update(map, belief, delta, 1, Owner.UNKNOWN, 0);
+
+		MapState filled = new MapState(map.getState().size());
+		belief.fill(filled);
+		assertEquals(Owner.NEUTRAL, filled.getOwner(1));
+		assertEquals(2, filled.getArmies(1));
+		assertEquals(Owner.UNKNOWN, filled.getOwner(2));
+	}
+
+	@Test
+	public void believesALostRegionIsTheOpponents() {
+		Map map = createMap();
+		FogBelief belief = new FogBelief(map);
+		MapDelta delta = new MapDelta(3);
+
+		// we hold the Region, then it is taken and we can't see it any more
+		update(map, belief, delta, 1, Owner.ME, 5);
+		update(map, belief, delta, 1, Owner.UNKNOWN, 0);
+
+		MapState filled = new MapState(map.getState().size());
+		belief.fill(filled);
+		assertEquals(Owner.OPPONENT, filled.getOwner(1));
+		assertEquals(Owner.OPPONENT, belief.getOwner(1));
+		assertEquals(1, belief.getRoundsHidden(1));
+	}
+
+	// makes the Region's owner and armies the ones of the next update, the
+	// way BotState.updateMap does
+	private static void update(Map map, FogBelief belief, MapDelta delta,
+			int id, byte owner, int armies) {
+		MapState state = map.getState();
+		delta.clear();
+		if (state.getOwner(id) == Owner.UNKNOWN && owner != Owner.UNKNOWN)
+			delta.show(id);
+		else if (state.getOwner(id) != Owner.UNKNOWN && owner == Owner.UNKNOWN)
+			delta.hide(id);
+		delta.change(id, state.getOwner(id), owner, state.getArmies(id), armies);
+		state.setOwner(id, owner);
+		state.setArmies(id, armies);
+		belief.mapChanged(delta);
+	}
+
+	private static Map createMap() {
+		Map map = new Map();
+		map.add(new SuperRegion(0, 1));
+		for (int id = 0; id < 3; id++)
+			map.add(new Region(id, map.getSuperRegion(0)));
+		map.getRegion(0).addNeighbor(map.getRegion(1));
+		map.getRegion(1).addNeighbor(map.getRegion(2));
+		map.getAdjacency();
+		return map;
+	}
+
+}
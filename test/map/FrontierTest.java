@@ -0,0 +1,100 @@
+package map;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Changes the owners of random Regions and checks that the
+ *         Frontier's edges and inner Regions are what classifying the whole
+ *         map again gives.
+ */
+public class FrontierTest {
+
+	private static final int REGIONS = 150;
+	private static final int ROUNDS = 200;
+
+	@Test
+	public void followsOwnerChanges() {
+		Random random = new Random(7);
+		Map map = createMap(random);
+		MapState state = map.getState();
+		for (int id = 0; id < REGIONS; id++)
+			state.setOwner(id, randomOwner(random));
+
+		Frontier frontier = new Frontier(map, Owner.ME);
+		assertClassified(map, frontier, -1);
+
+		MapDelta delta = new MapDelta(REGIONS);
+		for (int round = 0; round < ROUNDS; round++) {
+			delta.clear();
+			int changes = random.nextInt(10);
+			for (int i = 0; i < changes; i++) {
+				int id = random.nextInt(REGIONS);
+				byte owner = randomOwner(random);
+				delta.change(id, state.getOwner(id), owner, 0, 0);
+				state.setOwner(id, owner);
+			}
+			frontier.mapChanged(delta);
+			assertClassified(map, frontier, round);
+		}
+	}
+
+	@Test
+	public void rebuildsWhenTheStateIsReplaced() {
+		Random random = new Random(8);
+		Map map = createMap(random);
+		Frontier frontier = new Frontier(map, Owner.ME);
+
+		MapState other = new MapState(map.getState().size());
+		for (int id = 0; id < REGIONS; id++)
+			other.setOwner(id, randomOwner(random));
+		map.setState(other);
+		frontier.mapReplaced();
+		assertClassified(map, frontier, -1);
+	}
+
+	private static void assertClassified(Map map, Frontier frontier, int round) {
+		Adjacency adjacency = map.getAdjacency();
+		MapState state = map.getState();
+		int edges = 0, inner = 0;
+		for (int id = 0; id < REGIONS; id++) {
+			boolean owned = state.getOwner(id) == Owner.ME;
+			boolean edge = false;
+			for (int k = adjacency.begin(id); k < adjacency.end(id); k++)
+				if (state.getOwner(adjacency.target(k)) != Owner.ME)
+					edge = true;
+			String where = "round " + round + " region " + id;
+			assertEquals(where, owned && edge, frontier.isEdge(id));
+			assertEquals(where, owned && !edge, frontier.isInner(id));
+			if (owned && edge)
+				edges++;
+			else if (owned)
+				inner++;
+		}
+		assertEquals(edges, frontier.getEdges().size());
+		assertEquals(inner, frontier.getInner().size());
+	}
+
+	// mostly ours, so there are inner Regions too
+	private static byte randomOwner(Random random) {
+		return random.nextInt(4) == 0 ? Owner.OPPONENT : Owner.ME;
+	}
+
+	private static Map createMap(Random random) {
+		Map map = new Map();
+		map.add(new SuperRegion(0, 1));
+		for (int id = 0; id < REGIONS; id++)
+			map.add(new Region(id, map.getSuperRegion(0)));
+		for (int id = 1; id < REGIONS; id++)
+			map.getRegion(id).addNeighbor(map.getRegion(random.nextInt(id)));
+		for (int i = 0; i < REGIONS; i++)
+			map.getRegion(random.nextInt(REGIONS)).addNeighbor(
+					map.getRegion(random.nextInt(REGIONS)));
+		map.getAdjacency();
+		return map;
+	}
+
+}
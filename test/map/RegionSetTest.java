@@ -0,0 +1,119 @@
+package map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Checks the RegionSet against java.util.BitSet, around
+ *         the boundaries of its words and while it grows.
+ */
+public class RegionSetTest {
+
+	@Test
+	public void iteratesAcrossWordBoundaries() {
+		RegionSet set = new RegionSet(200);
+		int[] ids = { 0, 63, 64, 127, 128, 191 };
+		for (int id : ids)
+			assertTrue(set.add(id));
+		assertFalse(set.add(64));
+		assertEquals(ids.length, set.size());
+
+		int count = 0;
+		for (int id = set.first(); id >= 0; id = set.next(id + 1))
+			assertEquals(ids[count++], id);
+		assertEquals(ids.length, count);
+		assertEquals(64, set.next(64));
+		assertEquals(127, set.next(65));
+		assertEquals(-1, set.next(192));
+		assertEquals(-1, set.next(-1));
+		assertEquals(-1, set.next(1000));
+	}
+
+	@Test
+	public void growsForBigIds() {
+		RegionSet set = new RegionSet(0);
+		assertEquals(-1, set.first());
+		assertFalse(set.contains(500));
+		assertTrue(set.add(500));
+		assertTrue(set.add(3));
+		assertTrue(set.contains(500));
+		assertEquals(3, set.first());
+		assertEquals(500, set.next(4));
+		assertTrue(set.remove(500));
+		assertFalse(set.remove(500));
+		assertFalse(set.remove(5000));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	public void matchesBitSet() {
+		Random random = new Random(9);
+		for (int t = 0; t < 200; t++) {
+			int capacity = random.nextInt(300);
+			RegionSet a = new RegionSet(random.nextInt(capacity + 1));
+			RegionSet b = new RegionSet(random.nextInt(capacity + 1));
+			BitSet expectedA = new BitSet();
+			BitSet expectedB = new BitSet();
+			for (int i = 0; i < 100; i++) {
+				int id = random.nextInt(capacity + 1);
+				if (random.nextInt(3) == 0) {
+					assertEquals(expectedA.get(id), a.remove(id));
+					expectedA.clear(id);
+				} else {
+					assertEquals(!expectedA.get(id), a.add(id));
+					expectedA.set(id);
+				}
+				id = random.nextInt(capacity + 1);
+				b.add(id);
+				expectedB.set(id);
+			}
+			assertMatches(expectedA, a);
+
+			BitSet common = (BitSet) expectedA.clone();
+			common.and(expectedB);
+			assertEquals(common.cardinality(), a.countCommon(b));
+
+			RegionSet copy = new RegionSet(0);
+			copy.copyFrom(a);
+			assertMatches(expectedA, copy);
+
+			switch (random.nextInt(3)) {
+			case 0:
+				a.addAll(b);
+				expectedA.or(expectedB);
+				break;
+			case 1:
+				a.retainAll(b);
+				expectedA.and(expectedB);
+				break;
+			default:
+				a.removeAll(b);
+				expectedA.andNot(expectedB);
+			}
+			assertMatches(expectedA, a);
+		}
+	}
+
+	private static void assertMatches(BitSet expected, RegionSet set) {
+		assertEquals(expected.cardinality(), set.size());
+		int[] ids = set.toArray();
+		assertEquals(expected.cardinality(), ids.length);
+		int count = 0;
+		for (int id = expected.nextSetBit(0); id >= 0; id = expected
+				.nextSetBit(id + 1)) {
+			assertTrue(set.contains(id));
+			assertEquals(id, ids[count++]);
+		}
+		count = 0;
+		for (int id = set.first(); id >= 0; id = set.next(id + 1))
+			assertEquals(ids[count++], id);
+		assertEquals(ids.length, count);
+	}
+
+}
@@ -0,0 +1,139 @@
+package sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import map.Map;
+import map.MapState;
+import map.Owner;
+import map.Region;
+import map.SuperRegion;
+
+import org.junit.Test;
+
+/**
+ * @author PandaCoders Plays random rounds with the RoundSimulator and checks
+ *         that the states it reaches are ones the engine could reach.
+ */
+public class RoundSimulatorTest {
+
+	private static final int REGIONS = 12;
+	private static final int ROUNDS = 500;
+
+	@Test
+	public void ownedRegionsKeepAnArmy() {
+		for (RoundSimulator.Mode mode : RoundSimulator.Mode.values()) {
+			Random random = new Random(3);
+			Map map = createMap(random);
+			RoundSimulator simulator = new RoundSimulator(map);
+			simulator.setMode(mode);
+			simulator.setSeed(4);
+			for (int round = 0; round < ROUNDS; round++) {
+				MapState state = randomState(random);
+				simulator.simulate(state, randomMoves(random, map, state, Owner.ME),
+						randomMoves(random, map, state, Owner.OPPONENT));
+				for (int id = 0; id < REGIONS; id++)
+					if (state.getOwner(id) != Owner.UNKNOWN)
+						assertTrue(mode + " round " + round + " region " + id,
+								state.getArmies(id) >= 1);
+			}
+		}
+	}
+
+	@Test
+	public void sameSeedPlaysTheSameRound() {
+		Random random = new Random(5);
+		Map map = createMap(random);
+		RoundSimulator simulator = new RoundSimulator(map);
+		simulator.setMode(RoundSimulator.Mode.STOCHASTIC);
+		for (int round = 0; round < ROUNDS; round++) {
+			MapState start = randomState(random);
+			RoundMoves mine = randomMoves(random, map, start, Owner.ME);
+			RoundMoves theirs = randomMoves(random, map, start, Owner.OPPONENT);
+
+			MapState first = start.copy();
+			simulator.setSeed(round);
+			simulator.simulate(first, mine, theirs);
+			MapState second = start.copy();
+			simulator.setSeed(round);
+			simulator.simulate(second, mine, theirs);
+			for (int id = 0; id < REGIONS; id++) {
+				assertEquals(first.getOwner(id), second.getOwner(id));
+				assertEquals(first.getArmies(id), second.getArmies(id));
+			}
+		}
+	}
+
+	@Test
+	public void capturedRegionDoesNotMoveAgain() {
+		Map map = new Map();
+		SuperRegion superRegion = new SuperRegion(0, 1);
+		map.add(superRegion);
+		for (int id = 0; id < 3; id++)
+			map.add(new Region(id, superRegion));
+		map.getRegion(0).addNeighbor(map.getRegion(1));
+		map.getRegion(1).addNeighbor(map.getRegion(2));
+
+		MapState state = map.getState();
+		state.setOwner(0, Owner.ME);
+		state.setArmies(0, 10);
+		state.setOwner(1, Owner.NEUTRAL);
+		state.setArmies(1, 4);
+		state.setOwner(2, Owner.NEUTRAL);
+		state.setArmies(2, 1);
+
+		RoundMoves mine = new RoundMoves();
+		mine.addMove(0, 1, 9);
+		mine.addMove(1, 2, 3);
+		new RoundSimulator(map).simulate(state, mine, new RoundMoves());
+
+		assertEquals(Owner.ME, state.getOwner(1));
+		assertEquals(Owner.NEUTRAL, state.getOwner(2));
+		assertEquals(1, state.getArmies(2));
+	}
+
+	// a ring of Regions with a few chords, in three SuperRegions
+	private static Map createMap(Random random) {
+		Map map = new Map();
+		for (int id = 0; id < 3; id++)
+			map.add(new SuperRegion(id, 1 + id));
+		for (int id = 0; id < REGIONS; id++)
+			map.add(new Region(id, map.getSuperRegion(id % 3)));
+		for (int id = 0; id < REGIONS; id++)
+			map.getRegion(id).addNeighbor(map.getRegion((id + 1) % REGIONS));
+		for (int i = 0; i < REGIONS / 2; i++)
+			map.getRegion(random.nextInt(REGIONS)).addNeighbor(
+					map.getRegion(random.nextInt(REGIONS)));
+		map.getAdjacency();
+		return map;
+	}
+
+	private static MapState randomState(Random random) {
+		MapState state = new MapState(REGIONS);
+		for (int id = 0; id < REGIONS; id++) {
+			state.setOwner(id, (byte) (Owner.NEUTRAL + random.nextInt(3)));
+			state.setArmies(id, 1 + random.nextInt(8));
+		}
+		return state;
+	}
+
+	// placements on the owner's Regions and moves from them to neighbors,
+	// with more armies than the Regions have now and then
+	private static RoundMoves randomMoves(Random random, Map map,
+			MapState state, byte owner) {
+		RoundMoves moves = new RoundMoves();
+		for (int id = 0; id < REGIONS; id++) {
+			if (state.getOwner(id) != owner)
+				continue;
+			if (random.nextBoolean())
+				moves.addPlacement(id, 1 + random.nextInt(3));
+			for (Region neighbor : map.getRegion(id).getNeighbors())
+				if (random.nextInt(3) == 0)
+					moves.addMove(id, neighbor.getId(), 1 + random.nextInt(12));
+		}
+		return moves;
+	}
+
+}